@@ -164,7 +164,8 @@ public class JaumlConfigLib {
 
     public static List<String> getArrayAsList(String dir, String fileName, String arrayKey) {
         try {
-            return JaumlConfig.open(dir, fileName).getStringList(arrayKey);
+            // Callers of the legacy API may modify the returned list
+            return new java.util.ArrayList<>(JaumlConfig.open(dir, fileName).getStringList(arrayKey));
         } catch (Exception e) {
             return new java.util.ArrayList<>();
         }
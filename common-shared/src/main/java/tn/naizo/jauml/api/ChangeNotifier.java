@@ -0,0 +1,179 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes the changes between two roots of a config file and publishes them as one batch per commit or reload.
+ * Publishing never blocks: if a subscriber falls more than a buffer behind, its batches are dropped with a warning.
+ */
+final class ChangeNotifier {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("JaumlConfig");
+
+    private final String name;
+    private final SubmissionPublisher<List<ConfigChange>> publisher;
+    private volatile Executor executor;
+
+    ChangeNotifier(String name, Executor executor) {
+        this.name = name;
+        this.executor = executor;
+        // Resolve the executor per task so it can be replaced while subscribers are attached
+        this.publisher = new SubmissionPublisher<>(task -> this.executor.execute(task), Flow.defaultBufferSize());
+    }
+
+    void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    Flow.Publisher<List<ConfigChange>> publisher() {
+        return publisher;
+    }
+
+    boolean hasSubscribers() {
+        return publisher.hasSubscribers();
+    }
+
+    ConfigSubscription subscribe(String path, Consumer<ConfigChange> listener) {
+        PathSubscriber subscriber = new PathSubscriber(path, listener);
+        publisher.subscribe(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Publishes the differences between two roots, looking only at the given top-level keys.
+     * Neither root may be modified afterwards.
+     */
+    void publish(JsonObject before, JsonObject after, Set<String> keys) {
+        List<ConfigChange> batch = new ArrayList<>();
+        for (String key : keys) {
+            JsonElement oldValue = before.get(key);
+            JsonElement newValue = after.get(key);
+            if (!Objects.equals(oldValue, newValue)) {
+                batch.add(new ConfigChange(key, oldValue, newValue));
+            }
+        }
+        if (!batch.isEmpty()) {
+            publisher.offer(Collections.unmodifiableList(batch), (subscriber, items) -> {
+                LOGGER.warn("Dropping change events of {} for a subscriber that is falling behind", name);
+                return false;
+            });
+        }
+    }
+
+    /**
+     * Publishes the differences between two roots across all their top-level keys.
+     */
+    void publish(JsonObject before, JsonObject after) {
+        Set<String> keys = new LinkedHashSet<>(before.keySet());
+        keys.addAll(after.keySet());
+        publish(before, after, keys);
+    }
+
+    /**
+     * Publishes the differences for the keys touched by an editor.
+     */
+    void publish(JsonObject before, ConfigEditor editor) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (ConfigEditor.Change change : editor.changes()) {
+            keys.add(change.key);
+        }
+        publish(before, editor.root(), keys);
+    }
+
+    /**
+     * Delivers the change of one top-level key or nested path (e.g. {@code limits.max} or {@code items[0]})
+     * from each batch to a listener.
+     */
+    private final class PathSubscriber implements Flow.Subscriber<List<ConfigChange>>, ConfigSubscription {
+        private final String path;
+        private final String head;
+        private final JsonPath rest;
+        private final Consumer<ConfigChange> listener;
+        private volatile Flow.Subscription subscription;
+        private volatile boolean closed;
+
+        PathSubscriber(String path, Consumer<ConfigChange> listener) {
+            this.path = path;
+            this.listener = listener;
+            int end = 0;
+            while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                end++;
+            }
+            this.head = path.substring(0, end);
+            String rest = end < path.length() && path.charAt(end) == '.' ? path.substring(end + 1) : path.substring(end);
+            this.rest = rest.isEmpty() ? null : JsonPath.compile(rest);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (closed) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(List<ConfigChange> batch) {
+            if (closed) {
+                return;
+            }
+            ConfigChange match = null;
+            for (ConfigChange change : batch) {
+                if (change.key().equals(path)) {
+                    match = change;
+                    break;
+                }
+                if (rest != null && change.key().equals(head)) {
+                    JsonElement oldValue = rest.get(change.oldValue());
+                    JsonElement newValue = rest.get(change.newValue());
+                    if (!Objects.equals(oldValue, newValue)) {
+                        match = new ConfigChange(path, oldValue, newValue);
+                    }
+                    break;
+                }
+            }
+            if (match == null) {
+                return;
+            }
+            try {
+                listener.accept(match);
+            } catch (RuntimeException e) {
+                LOGGER.error("Change listener for '" + path + "' of " + name + " failed", e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            LOGGER.error("Change subscription for '" + path + "' of " + name + " failed", throwable);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
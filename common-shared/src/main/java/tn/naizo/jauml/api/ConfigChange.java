@@ -0,0 +1,65 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonElement;
+
+import java.util.Objects;
+
+/**
+ * One changed value of a config file, as delivered to change subscribers.
+ * The values are shared with the config's data and must not be modified.
+ */
+public final class ConfigChange {
+
+    private final String key;
+    private final JsonElement oldValue;
+    private final JsonElement newValue;
+
+    ConfigChange(String key, JsonElement oldValue, JsonElement newValue) {
+        this.key = key;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Returns the top-level key, or the path a listener subscribed to.
+     */
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Returns the value before the change, or null if there was none.
+     */
+    public JsonElement oldValue() {
+        return oldValue;
+    }
+
+    /**
+     * Returns the value after the change, or null if it was removed.
+     */
+    public JsonElement newValue() {
+        return newValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConfigChange)) {
+            return false;
+        }
+        ConfigChange other = (ConfigChange) o;
+        return key.equals(other.key) && Objects.equals(oldValue, other.oldValue) && Objects.equals(newValue, other.newValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, oldValue, newValue);
+    }
+
+    @Override
+    public String toString() {
+        return key + ": " + oldValue + " -> " + newValue;
+    }
+}
@@ -0,0 +1,551 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+
+/**
+ * Typed getters and setters for the inside of a {@link ConfigFile#edit(java.util.function.Consumer)} session.
+ * Getters see the edits made so far in the session. An editor must not be used after its session ends.
+ */
+public final class ConfigEditor {
+
+    static final String OP_SET = "set";
+    static final String OP_REMOVE = "remove";
+    static final String OP_LIST_ADD = "list_add";
+    static final String OP_LIST_REMOVE = "list_remove";
+    static final String OP_LIST_CLEAR = "list_clear";
+    static final String OP_SET_PATH = "set_path";
+    static final String OP_LIST_ADD_ALL = "list_add_all";
+    static final String OP_LIST_REMOVE_ALL = "list_remove_all";
+    static final String OP_LIST_RETAIN_ALL = "list_retain_all";
+    static final String OP_LIST_REPLACE = "list_replace";
+
+    private final JsonObject base;
+    private final boolean copy;
+    private JsonObject root;
+    private boolean rootCopied;
+    // Top-level values (lists, or trees changed through a path) already copied or created in this session,
+    // which may be changed in place
+    private Set<String> ownedKeys;
+    private final List<Change> changes = new ArrayList<>();
+
+    /**
+     * @param base the current root
+     * @param copy whether to leave {@code base} untouched, copying the root and each changed list on first write
+     */
+    ConfigEditor(JsonObject base, boolean copy) {
+        this.base = base;
+        this.copy = copy;
+        this.root = base;
+    }
+
+    // ==================== GETTERS ====================
+
+    public String getString(String key, String defaultValue) {
+        return Values.getString(root, key, defaultValue);
+    }
+
+    public String getString(String key) {
+        return Values.getString(root, key, null);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        return Values.getInt(root, key, defaultValue);
+    }
+
+    public OptionalInt getInt(String key) {
+        return Values.getInt(root, key);
+    }
+
+    public long getLong(String key, long defaultValue) {
+        return Values.getLong(root, key, defaultValue);
+    }
+
+    public OptionalLong getLong(String key) {
+        return Values.getLong(root, key);
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        return Values.getDouble(root, key, defaultValue);
+    }
+
+    public OptionalDouble getDouble(String key) {
+        return Values.getDouble(root, key);
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        return Values.getBoolean(root, key, defaultValue);
+    }
+
+    public Boolean getBoolean(String key) {
+        return Values.getBoolean(root, key);
+    }
+
+    public List<String> getStringList(String key) {
+        return Values.getStringList(root, key);
+    }
+
+    public boolean listContains(String key, String value) {
+        return Values.listContains(root, key, value);
+    }
+
+    public boolean hasKey(String key) {
+        return Values.hasKey(root, key);
+    }
+
+    public Set<String> keys() {
+        return Values.keys(root);
+    }
+
+    public String getString(JsonPath path, String defaultValue) {
+        return Values.getString(root, path, defaultValue);
+    }
+
+    public int getInt(JsonPath path, int defaultValue) {
+        return Values.getInt(root, path, defaultValue);
+    }
+
+    public long getLong(JsonPath path, long defaultValue) {
+        return Values.getLong(root, path, defaultValue);
+    }
+
+    public double getDouble(JsonPath path, double defaultValue) {
+        return Values.getDouble(root, path, defaultValue);
+    }
+
+    public boolean getBoolean(JsonPath path, boolean defaultValue) {
+        return Values.getBoolean(root, path, defaultValue);
+    }
+
+    public boolean has(JsonPath path) {
+        return Values.has(root, path);
+    }
+
+    // ==================== SETTERS ====================
+
+    public ConfigEditor set(String key, String value) {
+        if (value == null) {
+            writableRoot().remove(key);
+            changes.add(new Change(OP_REMOVE, key, null));
+        } else {
+            put(key, new JsonPrimitive(value));
+        }
+        return this;
+    }
+
+    public ConfigEditor set(String key, int value) {
+        put(key, new JsonPrimitive(value));
+        return this;
+    }
+
+    public ConfigEditor set(String key, long value) {
+        put(key, new JsonPrimitive(value));
+        return this;
+    }
+
+    public ConfigEditor set(String key, double value) {
+        put(key, new JsonPrimitive(value));
+        return this;
+    }
+
+    public ConfigEditor set(String key, boolean value) {
+        put(key, new JsonPrimitive(value));
+        return this;
+    }
+
+    private void put(String key, JsonElement value) {
+        writableRoot().add(key, value);
+        changes.add(new Change(OP_SET, key, value));
+    }
+
+    // ==================== NESTED PATHS ====================
+
+    public ConfigEditor set(JsonPath path, String value) {
+        return set(path, value == null ? JsonNull.INSTANCE : new JsonPrimitive(value));
+    }
+
+    public ConfigEditor set(JsonPath path, int value) {
+        return set(path, new JsonPrimitive(value));
+    }
+
+    public ConfigEditor set(JsonPath path, long value) {
+        return set(path, new JsonPrimitive(value));
+    }
+
+    public ConfigEditor set(JsonPath path, double value) {
+        return set(path, new JsonPrimitive(value));
+    }
+
+    public ConfigEditor set(JsonPath path, boolean value) {
+        return set(path, new JsonPrimitive(value));
+    }
+
+    /**
+     * Sets a nested value, creating missing intermediate objects and arrays. A null value is stored as JSON null.
+     *
+     * @throws IllegalArgumentException if the path starts with an array index
+     */
+    public ConfigEditor set(JsonPath path, JsonElement value) {
+        String key = path.firstKey();
+        if (key == null) {
+            throw new IllegalArgumentException("Config paths must start with a key: " + path);
+        }
+        JsonElement stored = value == null ? JsonNull.INSTANCE : value;
+        if (copy && (ownedKeys == null || !ownedKeys.contains(key))) {
+            JsonElement current = root.get(key);
+            if (current != null && (current.isJsonObject() || current.isJsonArray())) {
+                writableRoot().add(key, current.deepCopy());
+            }
+            own(key);
+        }
+        path.set(writableRoot(), stored);
+        changes.add(new Change(OP_SET_PATH, key, path.toString(), stored));
+        return this;
+    }
+
+    // ==================== ARRAY OPERATIONS ====================
+
+    /**
+     * Adds a value to a JSON array under the given key. Prevents duplicate strings.
+     * @return true if the item was added, false if it already existed
+     */
+    public boolean addToList(String key, String value) {
+        JsonArray array;
+        JsonElement el = root.get(key);
+        if (el != null && el.isJsonArray()) {
+            array = el.getAsJsonArray();
+
+            // Duplicate check (exact match)
+            for (JsonElement item : array) {
+                if (item.isJsonPrimitive() && item.getAsString().equals(value)) {
+                    return false;
+                }
+            }
+            array = writableList(key, array);
+        } else {
+            array = new JsonArray();
+            putList(key, array);
+        }
+
+        array.add(value);
+        changes.add(new Change(OP_LIST_ADD, key, value == null ? JsonNull.INSTANCE : new JsonPrimitive(value)));
+        return true;
+    }
+
+    /**
+     * Appends a value to an existing list without the duplicate check, for callers that already know it is absent.
+     */
+    void appendToList(String key, String value) {
+        JsonArray array = writableList(key, root.get(key).getAsJsonArray());
+        array.add(value);
+        changes.add(new Change(OP_LIST_ADD, key, value == null ? JsonNull.INSTANCE : new JsonPrimitive(value)));
+    }
+
+    /**
+     * Removes a value from a JSON array under the given key.
+     * @return true if the item was removed, false if not found
+     */
+    public boolean removeFromList(String key, String value) {
+        JsonElement el = root.get(key);
+        if (el == null || !el.isJsonArray()) {
+            return false;
+        }
+
+        JsonArray array = el.getAsJsonArray();
+        JsonArray updated = new JsonArray();
+        boolean removed = false;
+
+        for (JsonElement item : array) {
+            if (item.isJsonPrimitive() && item.getAsString().equals(value)) {
+                removed = true;
+                continue;
+            }
+            updated.add(item);
+        }
+
+        if (removed) {
+            putList(key, updated);
+            changes.add(new Change(OP_LIST_REMOVE, key, value == null ? JsonNull.INSTANCE : new JsonPrimitive(value)));
+        }
+        return removed;
+    }
+
+    /**
+     * Clears all elements from the JSON array under the given key.
+     */
+    public void clearList(String key) {
+        putList(key, new JsonArray());
+        changes.add(new Change(OP_LIST_CLEAR, key, null));
+    }
+
+    /**
+     * Adds every value that is not in the list yet, in order, skipping duplicates within {@code values} and nulls.
+     * Creates the list if it does not exist.
+     * @return the number of values added
+     */
+    public int addAllToList(String key, Collection<String> values) {
+        JsonElement el = root.get(key);
+        JsonArray existing = el != null && el.isJsonArray() ? el.getAsJsonArray() : null;
+        Set<String> present = existing != null ? stringsOf(existing, values.size()) : new HashSet<>();
+        JsonArray added = new JsonArray();
+        for (String value : values) {
+            if (value != null && present.add(value)) {
+                added.add(value);
+            }
+        }
+        if (added.isEmpty()) {
+            return 0;
+        }
+        JsonArray array;
+        if (existing != null) {
+            array = writableList(key, existing);
+        } else {
+            array = new JsonArray(added.size());
+            putList(key, array);
+        }
+        array.addAll(added);
+        changes.add(new Change(OP_LIST_ADD_ALL, key, added));
+        return added.size();
+    }
+
+    /**
+     * Removes every occurrence of the given values from the list in a single pass.
+     * @return the number of elements removed
+     */
+    public int removeAllFromList(String key, Collection<String> values) {
+        return filterList(key, values, false, OP_LIST_REMOVE_ALL);
+    }
+
+    /**
+     * Removes every element that is not one of the given values from the list in a single pass.
+     * @return the number of elements removed
+     */
+    public int retainAllInList(String key, Collection<String> values) {
+        return filterList(key, values, true, OP_LIST_RETAIN_ALL);
+    }
+
+    /**
+     * Replaces the list with the given values, in order, skipping duplicates and nulls.
+     * @return the number of elements in the new list
+     */
+    public int replaceList(String key, Collection<String> values) {
+        Set<String> seen = new HashSet<>(Math.max(16, (int) (values.size() / 0.75f) + 1));
+        JsonArray array = new JsonArray(values.size());
+        for (String value : values) {
+            if (value != null && seen.add(value)) {
+                array.add(value);
+            }
+        }
+        putList(key, array);
+        changes.add(new Change(OP_LIST_REPLACE, key, array));
+        return array.size();
+    }
+
+    private int filterList(String key, Collection<String> values, boolean keepMatches, String op) {
+        JsonElement el = root.get(key);
+        if (el == null || !el.isJsonArray()) {
+            return 0;
+        }
+        Set<String> lookup = new HashSet<>(values);
+        JsonArray array = el.getAsJsonArray();
+        JsonArray updated = new JsonArray(array.size());
+        for (JsonElement item : array) {
+            boolean matches = item.isJsonPrimitive() && lookup.contains(item.getAsString());
+            if (matches == keepMatches) {
+                updated.add(item);
+            }
+        }
+        int removed = array.size() - updated.size();
+        if (removed > 0) {
+            putList(key, updated);
+            JsonArray recorded = new JsonArray(lookup.size());
+            for (String value : lookup) {
+                if (value != null) {
+                    recorded.add(value);
+                }
+            }
+            changes.add(new Change(op, key, recorded));
+        }
+        return removed;
+    }
+
+    private static Set<String> stringsOf(JsonArray array, int extra) {
+        Set<String> strings = new HashSet<>(Math.max(16, (int) ((array.size() + extra) / 0.75f) + 1));
+        for (JsonElement item : array) {
+            if (item.isJsonPrimitive()) {
+                strings.add(item.getAsString());
+            }
+        }
+        return strings;
+    }
+
+    private static List<String> strings(JsonElement value) {
+        List<String> strings = new ArrayList<>();
+        for (JsonElement item : value.getAsJsonArray()) {
+            strings.add(item.getAsString());
+        }
+        return strings;
+    }
+
+    // ==================== STRUCTURAL ====================
+
+    /**
+     * Removes a key entirely from the configuration.
+     * @return true if the key existed and was removed, false otherwise
+     */
+    public boolean removeKey(String key) {
+        if (!root.has(key)) {
+            return false;
+        }
+        writableRoot().remove(key);
+        changes.add(new Change(OP_REMOVE, key, null));
+        return true;
+    }
+
+    // ==================== SESSION ====================
+
+    /**
+     * Applies a journal record without recording it as a new change.
+     */
+    void replay(JsonObject record) {
+        String op = record.get("op").getAsString();
+        String key = record.get("key").getAsString();
+        JsonElement value = record.get("value");
+        int recorded = changes.size();
+        switch (op) {
+            case OP_SET:
+                put(key, value);
+                break;
+            case OP_REMOVE:
+                removeKey(key);
+                break;
+            case OP_LIST_ADD:
+                addToList(key, text(value));
+                break;
+            case OP_LIST_REMOVE:
+                removeFromList(key, text(value));
+                break;
+            case OP_LIST_CLEAR:
+                clearList(key);
+                break;
+            case OP_SET_PATH:
+                set(JsonPath.of(record.get("path").getAsString()), value);
+                break;
+            case OP_LIST_ADD_ALL:
+                addAllToList(key, strings(value));
+                break;
+            case OP_LIST_REMOVE_ALL:
+                removeAllFromList(key, strings(value));
+                break;
+            case OP_LIST_RETAIN_ALL:
+                retainAllInList(key, strings(value));
+                break;
+            case OP_LIST_REPLACE:
+                replaceList(key, strings(value));
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal operation: " + op);
+        }
+        changes.subList(recorded, changes.size()).clear();
+    }
+
+    private static String text(JsonElement value) {
+        return value == null || value.isJsonNull() ? null : value.getAsString();
+    }
+
+    boolean isModified() {
+        return !changes.isEmpty();
+    }
+
+    JsonObject root() {
+        return root;
+    }
+
+    List<Change> changes() {
+        return changes;
+    }
+
+    private JsonObject writableRoot() {
+        if (copy && !rootCopied) {
+            JsonObject copied = new JsonObject();
+            for (Map.Entry<String, JsonElement> entry : base.entrySet()) {
+                copied.add(entry.getKey(), entry.getValue());
+            }
+            root = copied;
+            rootCopied = true;
+        }
+        return root;
+    }
+
+    private JsonArray writableList(String key, JsonArray array) {
+        if (!copy || (ownedKeys != null && ownedKeys.contains(key))) {
+            return array;
+        }
+        JsonArray copied = new JsonArray(array.size() + 1);
+        copied.addAll(array);
+        putList(key, copied);
+        return copied;
+    }
+
+    private void putList(String key, JsonArray array) {
+        writableRoot().add(key, array);
+        if (copy) {
+            own(key);
+        }
+    }
+
+    private void own(String key) {
+        if (ownedKeys == null) {
+            ownedKeys = new HashSet<>();
+        }
+        ownedKeys.add(key);
+    }
+
+    /**
+     * One applied mutation, in the form it is written to the journal.
+     */
+    static final class Change {
+        final String op;
+        // The top-level key affected, also for nested path changes
+        final String key;
+        final String path;
+        final JsonElement value;
+
+        Change(String op, String key, JsonElement value) {
+            this(op, key, null, value);
+        }
+
+        Change(String op, String key, String path, JsonElement value) {
+            this.op = op;
+            this.key = key;
+            this.path = path;
+            this.value = value;
+        }
+
+        String toRecord() {
+            JsonObject record = new JsonObject();
+            record.addProperty("op", op);
+            record.addProperty("key", key);
+            if (path != null) {
+                record.addProperty("path", path);
+            }
+            if (value != null) {
+                record.add("value", value);
+            }
+            return JsonLib.stringify(record, OutputFormat.COMPACT);
+        }
+    }
+}
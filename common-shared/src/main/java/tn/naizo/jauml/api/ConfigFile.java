@@ -1,83 +1,366 @@
 package tn.naizo.jauml.api;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonParseException;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.Reader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.MappedByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import tn.naizo.jauml.internal.AtomicFileWriter;
+import tn.naizo.jauml.internal.ByteBufferReader;
+import tn.naizo.jauml.internal.ConfigSnapshot;
+import tn.naizo.jauml.internal.ContentHash;
+import tn.naizo.jauml.internal.EventDispatcher;
+import tn.naizo.jauml.internal.MappedFiles;
+import tn.naizo.jauml.internal.MutationJournal;
+import tn.naizo.jauml.internal.SaveScheduler;
 
 public final class ConfigFile {
 
     private static final Logger LOGGER = LoggerFactory.getLogger("JaumlConfig");
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final int MAX_MAPPED_READER_BUFFER = 1 << 16;
+    private static final int JOURNAL_COMPACT_RECORDS = 4096;
+    private static final long JOURNAL_COMPACT_BYTES = 1 << 20;
 
     private final Path filePath;
+    private final Path journalPath;
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private JsonObject rootData;
+    // Copy-on-write mode: the current root, published for lock-free readers and never modified once published
+    private boolean copyOnWrite;
+    private volatile JsonObject publishedRoot;
 
     private JsonSchema schema;
     private JsonMigrator migrator;
     private String targetVersion;
     private JsonObject defaultData;
 
+    // Incremented (under the write lock) on every mutation of rootData
+    private volatile long generation;
+    // Generation right after the last load; differs from generation once rootData has been modified
+    private long loadedGeneration = -1;
+    private final AtomicLong loadCount = new AtomicLong();
+
+    // Physical writes are serialized through ioLock; snapshots older than lastWrittenGeneration are dropped
+    // so that a slower writer can never overwrite the file with older content.
+    private final ReentrantLock ioLock = new ReentrantLock();
+    private long lastWrittenGeneration;
+    private volatile DiskState diskState;
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong skippedSaveCount = new AtomicLong();
+    private volatile SaveDurability durability = SaveDurability.NONE;
+    private volatile long mappedReadThreshold = Long.MAX_VALUE;
+    private volatile OutputFormat outputFormat = OutputFormat.PRETTY;
+    private volatile Path snapshotDirectory;
+    private final AtomicLong snapshotHitCount = new AtomicLong();
+
+    // Journaled mode: mutations are queued as records in generation order (under the write lock), appended to
+    // the sidecar journal by save(), and compacted into the main file once the journal grows too large.
+    private volatile boolean journaled;
+    // Set when rootData may contain changes that are not in the journal queue, forcing the next save to compact
+    private volatile boolean journalIncomplete;
+    private final ConcurrentLinkedQueue<JournalEntry> journalQueue = new ConcurrentLinkedQueue<>();
+    // Guarded by ioLock: hash of the main file the journal applies to, and the records it holds
+    private byte[] journalBase;
+    private final List<JournalEntry> journalEntries = new ArrayList<>();
+    private long journalBytes;
+    private boolean compactionScheduled;
+
+    // Keys compiled into the flat scalar store, in slot order (guarded by lock)
+    private final List<String> slotKeys = new ArrayList<>();
+    private final Map<String, Integer> slotIndex = new HashMap<>();
+    private volatile ScalarStore scalars = ScalarStore.EMPTY;
+
+    // Unmodifiable results of getStringList and keys, valid while the generation they were read at is current
+    private final Map<String, Cached<List<String>>> cachedLists = new ConcurrentHashMap<>();
+    private volatile Cached<Set<String>> cachedKeys;
+
+    // Membership indexes of lists, built lazily under the read or write lock and only changed under the write lock
+    private volatile boolean listIndexing;
+    private final Map<String, ListIndex> listIndexes = new ConcurrentHashMap<>();
+
+    // Created on first subscription, under the write lock
+    private volatile ChangeNotifier notifier;
+    private Executor changeExecutor = EventDispatcher.executor();
+
+    // Write-behind state, guarded by writeBehindMonitor
+    private final Object writeBehindMonitor = new Object();
+    private volatile long writeBehindMillis;
+    private boolean dirty;
+    private ScheduledFuture<?> pendingFlush;
+
+    /**
+     * Creates an unloaded config file; callers apply their options and then call {@link #reload()}.
+     */
     ConfigFile(Path filePath) {
         this.filePath = filePath;
+        this.journalPath = MutationJournal.pathFor(filePath);
         this.rootData = new JsonObject();
-        loadFromDisk();
     }
 
     /**
      * Loads or reloads the configuration data from disk.
      * If the file does not exist, an empty configuration is maintained in memory.
+     * <p>
+     * This is cheap when nothing changed: if the in-memory data has not been modified since the last load
+     * (or, when no defaults, migrator or schema are set, the last save) and the file's size and modification
+     * time (or, failing that, its content hash) are unchanged, the file is not parsed again.
+     * Use {@link #reloadIfChanged()} to learn whether anything changed.
      */
     public void reload() {
+        reloadIfChanged();
+    }
+
+    /**
+     * Same as {@link #reload()}, reporting whether it had any effect.
+     * @return true if the in-memory configuration changed as a result
+     */
+    public boolean reloadIfChanged() {
         lock.writeLock().lock();
         try {
-            loadFromDisk();
+            // Data saved since the last load is what a reload would produce, unless loading rewrites it
+            // (migration, default merge, schema fallback)
+            DiskState known = diskState;
+            boolean current = generation == loadedGeneration
+                    || (known != null && known.synced && known.generation == generation
+                            && migrator == null && defaultData == null && schema == null);
+            if (current && !diskChanged()) {
+                loadedGeneration = generation;
+                return false;
+            }
+            return loadAndCompare();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads the file only if its content differs from what this instance last read or wrote,
+     * so events caused by our own saves are ignored. If there are unsaved in-memory changes, the external
+     * edit is not loaded (it would discard them) and a conflict is logged instead.
+     * @return true if the in-memory configuration changed as a result
+     */
+    boolean reloadIfModified() {
+        lock.writeLock().lock();
+        // Saves update diskState only after their rename, so wait for any in-flight write to finish
+        ioLock.lock();
+        try {
+            if (!diskChanged()) {
+                return false;
+            }
+            if (hasUnsavedChanges()) {
+                LOGGER.warn("Config file {} was changed on disk while it has unsaved changes; keeping the in-memory version", filePath);
+                return false;
+            }
+            return loadAndCompare();
         } finally {
+            ioLock.unlock();
             lock.writeLock().unlock();
         }
     }
 
+    /**
+     * Returns true if rootData holds changes that are neither in the main file nor in the journal.
+     * Must be called with the write lock held.
+     */
+    private boolean hasUnsavedChanges() {
+        if (generation == loadedGeneration) {
+            return false;
+        }
+        if (journaled) {
+            return journalIncomplete || !journalQueue.isEmpty();
+        }
+        DiskState known = diskState;
+        return known == null || !known.synced || known.generation != generation;
+    }
+
+    /**
+     * Returns the number of times this file has been read and parsed from disk.
+     */
+    public long loadCount() {
+        return loadCount.get();
+    }
+
+    private boolean loadAndCompare() {
+        JsonObject previous = rootData;
+        loadFromDisk();
+        return !rootData.equals(previous);
+    }
+
+    /**
+     * Checks the file against what was last read or written: first by size and modification time,
+     * then by content hash. If only the metadata changed, the recorded state is refreshed.
+     */
+    private boolean diskChanged() {
+        DiskState known = diskState;
+        BasicFileAttributes attributes = readAttributes();
+        if (known == null || attributes == null) {
+            return known != null || attributes != null;
+        }
+        if (known.matches(attributes)) {
+            return false;
+        }
+        try {
+            byte[] hash = ContentHash.ofFile(filePath);
+            if (Arrays.equals(hash, known.hash)) {
+                diskState = new DiskState(known.generation, known.synced, attributes, hash);
+                return false;
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to hash config file {}: {}", filePath, e.getMessage());
+        }
+        return true;
+    }
+
     private void loadFromDisk() {
+        JsonObject previous = rootData;
+        ioLock.lock();
+        try {
+            // Unsaved records are discarded along with the in-memory changes they describe
+            journalQueue.clear();
+            journalEntries.clear();
+            journalBytes = 0;
+            journalBase = null;
+        } finally {
+            ioLock.unlock();
+        }
+        readFromDisk();
+        replayJournal();
+        journalIncomplete = false;
+        loadedGeneration = generation;
+        refreshScalars();
+        listIndexes.clear();
+        cachedLists.clear();
+        if (hasSubscribers()) {
+            notifier.publish(previous, rootData);
+        }
+    }
+
+    /**
+     * Applies the records of a journal written against the main file that was just loaded.
+     * A journal for different main file content is stale (already compacted) and is removed.
+     */
+    private void replayJournal() {
+        DiskState known = diskState;
+        ioLock.lock();
+        try {
+            if (known == null) {
+                return;
+            }
+            journalBase = known.hash;
+            List<String> records = MutationJournal.read(journalPath, known.hash);
+            if (records == null) {
+                if (Files.exists(journalPath)) {
+                    LOGGER.warn("Discarding stale journal {}", journalPath);
+                    Files.deleteIfExists(journalPath);
+                }
+                return;
+            }
+            // Readers may already see the loaded tree in copy-on-write mode, so replay into a private copy
+            ConfigEditor editor = new ConfigEditor(rootData, copyOnWrite);
+            for (String line : records) {
+                try {
+                    editor.replay(JsonLib.strictParse(line).getAsJsonObject());
+                } catch (Exception e) {
+                    LOGGER.warn("Skipping unreadable record in journal {}: {}", journalPath, e.getMessage());
+                    continue;
+                }
+                journalEntries.add(new JournalEntry(generation, line));
+                journalBytes += line.length() + 1;
+            }
+            if (!journalEntries.isEmpty()) {
+                // The tree no longer matches the main file alone, and cached reads must see the replayed values
+                publish(editor.root());
+                generation++;
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to read journal: " + journalPath, e);
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    private void readFromDisk() {
         if (!Files.exists(filePath)) {
-            this.rootData = defaultData != null ? JsonLib.deepClone(defaultData).getAsJsonObject() : new JsonObject();
+            replaceRoot(defaultData != null ? JsonLib.deepClone(defaultData).getAsJsonObject() : new JsonObject());
+            this.diskState = null;
             return;
         }
 
         boolean corrupted = false;
         try {
-            byte[] bytes = Files.readAllBytes(filePath);
-            String content = new String(bytes, StandardCharsets.UTF_8);
-            if (content.trim().isEmpty()) {
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            loadCount.incrementAndGet();
+            Path snapshot = snapshotPath();
+            byte[] fingerprint = null;
+            byte[] sourceHash = null;
+            if (snapshot != null) {
+                sourceHash = ContentHash.ofFile(filePath);
+                fingerprint = configurationFingerprint();
+                JsonObject cached = readSnapshot(snapshot, sourceHash, fingerprint);
+                if (cached != null) {
+                    this.diskState = new DiskState(generation, false, attributes, sourceHash);
+                    snapshotHitCount.incrementAndGet();
+                    replaceRoot(cached);
+                    return;
+                }
+            }
+            // On a snapshot miss the content hash is already known, so the file is not hashed a second time
+            MessageDigest digest = sourceHash == null ? ContentHash.newDigest() : null;
+            JsonElement parsed = attributes.size() >= mappedReadThreshold
+                    ? readMapped(attributes.size(), digest)
+                    : readStreamed(digest);
+            // The loaded tree may differ from the file (migration, normalization), so it is not marked as synced
+            this.diskState = new DiskState(generation, false, attributes, sourceHash != null ? sourceHash : digest.digest());
+            if (parsed == null) {
                 LOGGER.warn("Config file at {} is empty.", filePath);
-                this.rootData = defaultData != null ? JsonLib.deepClone(defaultData).getAsJsonObject() : new JsonObject();
+                replaceRoot(defaultData != null ? JsonLib.deepClone(defaultData).getAsJsonObject() : new JsonObject());
                 save();
                 return;
             }
 
-            JsonElement parsed = JsonLib.strictParse(content);
             if (parsed.isJsonObject()) {
                 JsonObject obj = parsed.getAsJsonObject();
 
@@ -93,7 +376,7 @@ public final class ConfigFile {
 
                 // 2. Normalization / Default Merge
                 if (!corrupted && defaultData != null) {
-                    obj = JsonLib.normalize(obj, defaultData).getAsJsonObject();
+                    obj = JsonLib.normalizeInPlace(obj, defaultData).getAsJsonObject();
                 }
 
                 // 3. Schema Validation
@@ -104,7 +387,7 @@ public final class ConfigFile {
                         LOGGER.error("Schema validation failed for config file " + filePath + ": " + e.getMessage(), e);
                         if (defaultData != null) {
                             LOGGER.warn("Attempting to normalize config to schema template.");
-                            obj = JsonLib.normalize(obj, defaultData).getAsJsonObject();
+                            obj = JsonLib.normalizeInPlace(obj, defaultData).getAsJsonObject();
                             schema.validate(obj); // validation check after normalization
                         } else {
                             corrupted = true;
@@ -113,7 +396,11 @@ public final class ConfigFile {
                 }
 
                 if (!corrupted) {
-                    this.rootData = obj;
+                    replaceRoot(obj);
+                    // The hash was taken before parsing, so only trust it if the file was not replaced meanwhile
+                    if (snapshot != null && diskState.matches(readAttributes())) {
+                        writeSnapshot(snapshot, diskState.hash, fingerprint, obj);
+                    }
                     return;
                 }
             } else {
@@ -130,6 +417,111 @@ public final class ConfigFile {
         }
     }
 
+    /**
+     * Decodes straight from the file into the strict parser, hashing the raw bytes on the way through
+     * unless the digest is null. Returns null if the file is blank.
+     */
+    private JsonElement readStreamed(MessageDigest digest) throws IOException {
+        InputStream in = Files.newInputStream(filePath);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                digest != null ? new DigestInputStream(in, digest) : in, StandardCharsets.UTF_8))) {
+            return isBlank(reader) ? null : JsonLib.strictParse(reader);
+        }
+    }
+
+    /**
+     * Memory-maps the file and parses it in place, so large files never have to be copied onto the heap.
+     * The content is hashed into the digest unless it is null. Returns null if the file is blank.
+     */
+    private JsonElement readMapped(long size, MessageDigest digest) throws IOException {
+        MappedByteBuffer mapped = MappedFiles.map(filePath);
+        try {
+            if (digest != null) {
+                digest.update(mapped.duplicate());
+            }
+            int bufferSize = (int) Math.min(Math.max(size, 1), MAX_MAPPED_READER_BUFFER);
+            BufferedReader reader = new BufferedReader(new ByteBufferReader(mapped), bufferSize);
+            return isBlank(reader) ? null : JsonLib.strictParse(reader);
+        } finally {
+            MappedFiles.unmap(mapped);
+        }
+    }
+
+    /**
+     * Returns the cached tree for this file content and configuration, or null on a miss.
+     */
+    private JsonObject readSnapshot(Path snapshot, byte[] sourceHash, byte[] fingerprint) {
+        try {
+            return ConfigSnapshot.read(snapshot, sourceHash, fingerprint);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read config snapshot {}: {}", snapshot, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshot(Path snapshot, byte[] sourceHash, byte[] fingerprint, JsonObject root) {
+        try {
+            ConfigSnapshot.write(snapshot, sourceHash, fingerprint, root);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write config snapshot {}: {}", snapshot, e.getMessage());
+        }
+    }
+
+    /**
+     * Names the snapshot after a hash of the config path, so files with the same name in different folders do not collide.
+     */
+    private Path snapshotPath() {
+        Path directory = snapshotDirectory;
+        if (directory == null) {
+            return null;
+        }
+        byte[] hash = ContentHash.of(filePath.toString().getBytes(StandardCharsets.UTF_8));
+        StringBuilder name = new StringBuilder(filePath.getFileName().toString()).append('-');
+        for (int i = 0; i < 8; i++) {
+            name.append(String.format("%02x", hash[i]));
+        }
+        return directory.resolve(name.append(".snap").toString());
+    }
+
+    /**
+     * Hashes everything besides the file content that influences the loaded tree: the schema,
+     * the registered migration steps and target version, and the defaults.
+     */
+    private byte[] configurationFingerprint() throws IOException {
+        MessageDigest digest = ContentHash.newDigest();
+        try (Writer fingerprint = new OutputStreamWriter(
+                new DigestOutputStream(OutputStream.nullOutputStream(), digest), StandardCharsets.UTF_8)) {
+            if (schema != null) {
+                JsonLib.writeStable(schema.schemaObject(), fingerprint);
+            }
+            fingerprint.append('\n');
+            fingerprint.append(migrator != null ? String.join(",", migrator.steps()) : "").append('\n');
+            fingerprint.append(targetVersion != null ? targetVersion : "").append('\n');
+            if (defaultData != null) {
+                JsonLib.writeStable(defaultData, fingerprint);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Skips leading whitespace (as defined by {@link String#trim()}) and reports whether the stream ended.
+     * The reader is left positioned at the first non-whitespace character.
+     */
+    private static boolean isBlank(BufferedReader reader) throws IOException {
+        while (true) {
+            reader.mark(1);
+            int c = reader.read();
+            if (c == -1) {
+                return true;
+            }
+            if (c > ' ') {
+                reader.reset();
+                return false;
+            }
+        }
+    }
+
     private void handleCorruptedConfig() {
         try {
             Path backupPath = filePath.getParent().resolve(filePath.getFileName().toString() + ".bak");
@@ -142,59 +534,784 @@ public final class ConfigFile {
             LOGGER.error("Failed to create backup of corrupted config file: " + filePath, e);
         }
 
+        this.diskState = null;
         // Reset to default config in memory
-        this.rootData = defaultData != null ? JsonLib.deepClone(defaultData).getAsJsonObject() : new JsonObject();
+        replaceRoot(defaultData != null ? JsonLib.deepClone(defaultData).getAsJsonObject() : new JsonObject());
         // Save clean copy so startup doesn't fail
         save();
     }
 
 
+    private void replaceRoot(JsonObject newRoot) {
+        publish(newRoot);
+        generation++;
+    }
+
+    private void publish(JsonObject root) {
+        rootData = root;
+        if (copyOnWrite) {
+            publishedRoot = root;
+        }
+    }
+
+    /**
+     * Publishes the root of a finished editor and records its changes. Must be called with the write lock held.
+     */
+    private void commit(ConfigEditor editor) {
+        if (!editor.isModified()) {
+            return;
+        }
+        JsonObject previous = rootData;
+        publish(editor.root());
+        boolean slotChanged = false;
+        for (ConfigEditor.Change change : editor.changes()) {
+            generation++;
+            if (journaled) {
+                journalQueue.add(new JournalEntry(generation, change.toRecord()));
+            }
+            slotChanged |= slotIndex.containsKey(change.key);
+            if (!listIndexes.isEmpty()) {
+                updateListIndex(change);
+            }
+        }
+        if (slotChanged) {
+            refreshScalars();
+        }
+        if (hasSubscribers()) {
+            notifier.publish(previous, editor);
+        }
+    }
+
+    /**
+     * Starts an editor for a single mutation. While anyone listens for changes, edits are made on a copy
+     * so that the previous values stay intact for the change events. Must be called with the write lock held.
+     */
+    private ConfigEditor newEditor() {
+        return new ConfigEditor(rootData, copyOnWrite || hasSubscribers());
+    }
+
+    /**
+     * Keeps the index of a changed list in step with it, or drops it if the change was not a list operation.
+     */
+    private void updateListIndex(ConfigEditor.Change change) {
+        ListIndex index = listIndexes.get(change.key);
+        if (index == null) {
+            return;
+        }
+        JsonElement list = rootData.get(change.key);
+        if (list == null || !list.isJsonArray()) {
+            listIndexes.remove(change.key);
+            return;
+        }
+        switch (change.op) {
+            case ConfigEditor.OP_LIST_ADD:
+                if (!change.value.isJsonNull()) {
+                    index.added(list.getAsJsonArray(), change.value.getAsString());
+                }
+                break;
+            case ConfigEditor.OP_LIST_REMOVE:
+                index.removed(list.getAsJsonArray(), change.value.getAsString());
+                break;
+            case ConfigEditor.OP_LIST_CLEAR:
+                index.cleared(list.getAsJsonArray());
+                break;
+            case ConfigEditor.OP_LIST_ADD_ALL:
+                for (JsonElement value : change.value.getAsJsonArray()) {
+                    index.added(list.getAsJsonArray(), value.getAsString());
+                }
+                break;
+            case ConfigEditor.OP_LIST_REMOVE_ALL:
+                for (JsonElement value : change.value.getAsJsonArray()) {
+                    index.removed(list.getAsJsonArray(), value.getAsString());
+                }
+                break;
+            default:
+                listIndexes.remove(change.key);
+        }
+    }
+
+    /**
+     * Returns the membership index of a list, building it if needed, or null if list indexing is disabled,
+     * the key does not hold a list or the value cannot be indexed. Must be called with the read or write lock held.
+     */
+    private ListIndex listIndex(String key, String value) {
+        if (!listIndexing || value == null) {
+            return null;
+        }
+        JsonElement list = rootData.get(key);
+        if (list == null || !list.isJsonArray()) {
+            return null;
+        }
+        ListIndex index = listIndexes.get(key);
+        if (index == null || !index.describes(list)) {
+            index = ListIndex.build(list.getAsJsonArray());
+            listIndexes.put(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Rebuilds the flat scalar store from the current root. Must be called with the write lock held.
+     */
+    private void refreshScalars() {
+        if (!slotKeys.isEmpty()) {
+            scalars = ScalarStore.build(rootData, slotKeys);
+        }
+    }
+
+    private boolean hasSubscribers() {
+        ChangeNotifier current = notifier;
+        return current != null && current.hasSubscribers();
+    }
+
+    private static final class Cached<T> {
+        final long generation;
+        final T value;
+
+        Cached(long generation, T value) {
+            this.generation = generation;
+            this.value = value;
+        }
+    }
+
+    private static final class JournalEntry {
+        final long generation;
+        final String line;
+
+        JournalEntry(long generation, String line) {
+            this.generation = generation;
+            this.line = line;
+        }
+    }
+
     /**
-     * Writes the current in-memory configuration back to disk atomically.
+     * Writes the current in-memory configuration back to disk atomically, using the configured {@link SaveDurability}.
+     * When write-behind is enabled, the file is only marked dirty and bursts of saves
+     * are merged into a single background write; use {@link #flush()} to force it.
+     * In journaled mode the unsaved mutations are appended to the journal instead.
      */
     public void save() {
+        if (journaled) {
+            appendJournal();
+            return;
+        }
+        long window = writeBehindMillis;
+        if (window <= 0) {
+            writeToDisk();
+            return;
+        }
+        synchronized (writeBehindMonitor) {
+            dirty = true;
+            if (pendingFlush == null) {
+                pendingFlush = SaveScheduler.schedule(this::flush, window);
+            }
+        }
+    }
+
+    /**
+     * Immediately writes any pending write-behind save to disk.
+     * Does nothing if there are no unsaved changes.
+     */
+    public void flush() {
+        synchronized (writeBehindMonitor) {
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+                pendingFlush = null;
+            }
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+        }
+        writeToDisk();
+    }
+
+    /**
+     * Returns true if a write-behind save is waiting to be flushed to disk.
+     */
+    public boolean hasPendingSave() {
+        synchronized (writeBehindMonitor) {
+            return dirty;
+        }
+    }
+
+    /**
+     * Enables write-behind saving: calls to {@link #save()} within the given window are coalesced
+     * into one background write. A zero or negative window disables it and flushes pending changes.
+     */
+    public ConfigFile setWriteBehind(Duration window) {
+        long millis = window == null ? 0 : window.toMillis();
+        this.writeBehindMillis = Math.max(millis, 0);
+        if (millis <= 0) {
+            flush();
+        }
+        return this;
+    }
+
+    /**
+     * Returns the current write-behind window, or {@link Duration#ZERO} if saves are written immediately.
+     */
+    public Duration getWriteBehind() {
+        return Duration.ofMillis(writeBehindMillis);
+    }
+
+    /**
+     * Sets how much of each save is forced to stable storage. Saves are always written to a temporary
+     * file and atomically renamed over the config, regardless of the tier.
+     */
+    public ConfigFile setDurability(SaveDurability durability) {
+        this.durability = durability == null ? SaveDurability.NONE : durability;
+        return this;
+    }
+
+    /**
+     * Returns the durability tier used by {@link #save()}.
+     */
+    public SaveDurability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Sets the layout used when this file is saved, e.g. {@link OutputFormat#COMPACT} for machine-owned data.
+     * Files are always loaded regardless of the format they were written in.
+     */
+    public ConfigFile setOutputFormat(OutputFormat format) {
+        OutputFormat resolved = format == null ? OutputFormat.PRETTY : format;
+        if (!resolved.equals(outputFormat)) {
+            this.outputFormat = resolved;
+            // The next save must rewrite the file in the new layout, but its content is still what was last read
+            DiskState known = diskState;
+            if (known != null) {
+                this.diskState = new DiskState(known.generation, false, known.size, known.modified, known.hash);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the layout used when this file is saved.
+     */
+    public OutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+    /**
+     * Loads files of at least the given size through a read-only memory mapping instead of a buffered stream,
+     * avoiding large heap spikes for data files of many megabytes. Takes effect on the next load.
+     * Use {@link Long#MAX_VALUE} to disable (the default).
+     */
+    public ConfigFile setMappedReadThreshold(long bytes) {
+        this.mappedReadThreshold = bytes < 0 ? Long.MAX_VALUE : bytes;
+        return this;
+    }
+
+    /**
+     * Returns the file size from which loads are memory-mapped.
+     */
+    public long getMappedReadThreshold() {
+        return mappedReadThreshold;
+    }
+
+    /**
+     * Enables the binary snapshot cache in the given directory, or disables it with null (the default).
+     * After a file has been parsed, migrated, normalized and validated, the resulting tree is stored there;
+     * later loads of identical file content with an identical configuration read the snapshot instead and
+     * skip all of those stages. Migration steps are identified by their versions only, so bump the target
+     * version when a migration function changes. Takes effect on the next load.
+     */
+    public ConfigFile setSnapshotDirectory(Path directory) {
+        this.snapshotDirectory = directory;
+        return this;
+    }
+
+    /**
+     * Returns the snapshot cache directory, or null if snapshots are disabled.
+     */
+    public Path getSnapshotDirectory() {
+        return snapshotDirectory;
+    }
+
+    /**
+     * Returns the number of loads that were served from the snapshot cache.
+     */
+    public long snapshotHitCount() {
+        return snapshotHitCount.get();
+    }
+
+    /**
+     * Returns the number of times this file has physically been written to disk.
+     */
+    public long writeCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * Returns the number of saves that were skipped because nothing changed since the last write,
+     * or because the serialized content was identical to what is already on disk.
+     */
+    public long skippedSaveCount() {
+        return skippedSaveCount.get();
+    }
+
+    /**
+     * Enables or disables journaled storage. While enabled, {@link #save()} appends the mutations made since
+     * the last save ({@code set}, {@code removeKey} and the list operations) as small records to a sidecar
+     * {@code .journal} file instead of rewriting the whole file, so the cost of a save does not grow with
+     * the file. The journal is replayed on load and compacted into the main file in the background once it
+     * holds too many records. Write-behind does not apply to journaled saves.
+     */
+    public ConfigFile setJournaled(boolean journaled) {
+        lock.writeLock().lock();
+        try {
+            if (journaled && !this.journaled) {
+                // Changes made before journaling was enabled are not in the queue
+                journalIncomplete = generation != loadedGeneration;
+            }
+            this.journaled = journaled;
+            return this;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns true if saves are appended to a journal instead of rewriting the file.
+     */
+    public boolean isJournaled() {
+        return journaled;
+    }
+
+    private void appendJournal() {
+        boolean compact;
+        boolean scheduleCompaction = false;
+        ioLock.lock();
+        try {
+            DiskState known = diskState;
+            // Without a journal base that is still the file on disk, the whole file is written instead
+            compact = journalIncomplete || journalBase == null || known == null
+                    || !Arrays.equals(known.hash, journalBase) || !known.matches(readAttributes());
+            if (!compact) {
+                List<String> lines = new ArrayList<>();
+                JournalEntry entry;
+                while ((entry = journalQueue.poll()) != null) {
+                    journalEntries.add(entry);
+                    journalBytes += entry.line.length() + 1;
+                    lines.add(entry.line);
+                }
+                if (lines.isEmpty()) {
+                    skippedSaveCount.incrementAndGet();
+                } else {
+                    MutationJournal.append(journalPath, journalBase, lines, durability != SaveDurability.NONE);
+                    if (!compactionScheduled && (journalEntries.size() >= JOURNAL_COMPACT_RECORDS || journalBytes >= JOURNAL_COMPACT_BYTES)) {
+                        compactionScheduled = true;
+                        scheduleCompaction = true;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to append to journal: " + journalPath, e);
+            compact = true;
+        } finally {
+            ioLock.unlock();
+        }
+        if (compact) {
+            compactJournal();
+        } else if (scheduleCompaction) {
+            SaveScheduler.schedule(this::compactJournal, 0);
+        }
+    }
+
+    /**
+     * Writes the whole file and drops the journal records it now contains.
+     */
+    private void compactJournal() {
+        byte[] bytes;
+        long snapshotGeneration;
         lock.readLock().lock();
         try {
-            // Ensure parent directories exist
-            Path parent = filePath.getParent();
-            if (parent != null && !Files.exists(parent)) {
-                Files.createDirectories(parent);
+            snapshotGeneration = generation;
+            journalIncomplete = false;
+            bytes = serialize(rootData, outputFormat);
+        } catch (IOException e) {
+            journalIncomplete = true;
+            LOGGER.error("Failed to serialize config file: " + filePath, e);
+            return;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        byte[] hash = ContentHash.of(bytes);
+        ioLock.lock();
+        try {
+            compactionScheduled = false;
+            if (snapshotGeneration < lastWrittenGeneration) {
+                return; // a newer snapshot has already been written
+            }
+            boolean sync = durability != SaveDurability.NONE;
+            DiskState known = diskState;
+            if (!journalEntries.isEmpty() && journalBase != null && known != null && Arrays.equals(known.hash, journalBase)) {
+                // Make the journal valid for the new main file before writing it, so a crash in between cannot
+                // strand records that were saved after the snapshot
+                List<String> all = new ArrayList<>(journalEntries.size());
+                int compacted = 0;
+                for (JournalEntry entry : journalEntries) {
+                    all.add(entry.line);
+                    if (entry.generation <= snapshotGeneration) {
+                        compacted++;
+                    }
+                }
+                MutationJournal.prepareCompaction(journalPath, journalBase, hash, compacted, all, sync);
+            }
+            writeMainFile(bytes, hash, snapshotGeneration);
+            // Records newer than the snapshot stay queued or journaled against the new base
+            while (!journalQueue.isEmpty() && journalQueue.peek().generation <= snapshotGeneration) {
+                journalQueue.poll();
+            }
+            journalEntries.removeIf(entry -> entry.generation <= snapshotGeneration);
+            journalBase = hash;
+            journalBytes = 0;
+            List<String> lines = new ArrayList<>(journalEntries.size());
+            for (JournalEntry entry : journalEntries) {
+                journalBytes += entry.line.length() + 1;
+                lines.add(entry.line);
             }
+            MutationJournal.rewrite(journalPath, hash, lines, sync);
+        } catch (IOException e) {
+            journalIncomplete = true;
+            LOGGER.error("Failed to compact journal of config file: " + filePath, e);
+        } finally {
+            ioLock.unlock();
+        }
+    }
 
-            try (Writer writer = Files.newBufferedWriter(filePath)) {
-                GSON.toJson(rootData, writer);
+    private void writeToDisk() {
+        byte[] bytes;
+        long snapshotGeneration;
+        lock.readLock().lock();
+        try {
+            snapshotGeneration = generation;
+            DiskState known = diskState;
+            if (known != null && known.synced && known.generation == snapshotGeneration && known.matches(readAttributes())) {
+                skippedSaveCount.incrementAndGet();
+                return;
+            }
+            bytes = serialize(rootData, outputFormat);
+        } catch (IOException e) {
+            LOGGER.error("Failed to serialize config file: " + filePath, e);
+            return;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        byte[] hash = ContentHash.of(bytes);
+        ioLock.lock();
+        try {
+            if (snapshotGeneration < lastWrittenGeneration) {
+                return; // a newer snapshot has already been written
+            }
+            writeMainFile(bytes, hash, snapshotGeneration);
+            // A full write contains everything a leftover journal would replay
+            if (!journalEntries.isEmpty() || journalBase != null) {
+                journalEntries.clear();
+                journalBytes = 0;
+                journalBase = null;
+                Files.deleteIfExists(journalPath);
             }
         } catch (IOException e) {
             LOGGER.error("Failed to save config file: " + filePath, e);
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    /**
+     * Atomically replaces the main file. Must be called with ioLock held.
+     */
+    private void writeMainFile(byte[] bytes, byte[] hash, long snapshotGeneration) throws IOException {
+        DiskState known = diskState;
+        if (known != null && Arrays.equals(known.hash, hash) && known.matches(readAttributes())) {
+            diskState = new DiskState(snapshotGeneration, true, known.size, known.modified, hash);
+            lastWrittenGeneration = snapshotGeneration;
+            skippedSaveCount.incrementAndGet();
+            return;
+        }
+
+        // Ensure parent directories exist
+        Path parent = filePath.getParent();
+        if (parent != null && !Files.exists(parent)) {
+            Files.createDirectories(parent);
+        }
+
+        SaveDurability tier = durability;
+        AtomicFileWriter.write(filePath, bytes, tier != SaveDurability.NONE, tier == SaveDurability.FILE_AND_DIRECTORY);
+        lastWrittenGeneration = snapshotGeneration;
+        BasicFileAttributes written = readAttributes();
+        diskState = written != null ? new DiskState(snapshotGeneration, true, written, hash) : null;
+        writeCount.incrementAndGet();
+    }
+
+    private static byte[] serialize(JsonObject root, OutputFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        JsonLib.write(root, new OutputStreamWriter(out, StandardCharsets.UTF_8), format);
+        return out.toByteArray();
+    }
+
+    private BasicFileAttributes readAttributes() {
+        try {
+            return Files.readAttributes(filePath, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * What this instance last read from or wrote to disk. {@code synced} is true when the in-memory
+     * tree at {@code generation} serializes to exactly the file content described by this state.
+     */
+    private static final class DiskState {
+        final long generation;
+        final boolean synced;
+        final long size;
+        final FileTime modified;
+        final byte[] hash;
+
+        DiskState(long generation, boolean synced, BasicFileAttributes attributes, byte[] hash) {
+            this(generation, synced, attributes.size(), attributes.lastModifiedTime(), hash);
+        }
+
+        DiskState(long generation, boolean synced, long size, FileTime modified, byte[] hash) {
+            this.generation = generation;
+            this.synced = synced;
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return attributes != null && attributes.size() == size && attributes.lastModifiedTime().equals(modified);
+        }
+    }
+
+    /**
+     * Checks if the configuration file physically exists on disk.
+     */
+    public boolean exists() {
+        return Files.exists(filePath);
+    }
+
+    /**
+     * Deletes the configuration file from disk and clears the in-memory cache.
+     * @return true if successful, false otherwise
+     */
+    public boolean delete() {
+        synchronized (writeBehindMonitor) {
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+                pendingFlush = null;
+            }
+            dirty = false;
+        }
+        lock.writeLock().lock();
+        ioLock.lock();
+        try {
+            JsonObject previous = rootData;
+            replaceRoot(new JsonObject());
+            refreshScalars();
+            listIndexes.clear();
+            if (hasSubscribers()) {
+                notifier.publish(previous, rootData);
+            }
+            // Discard snapshots taken before the delete so an in-flight write cannot recreate the file
+            lastWrittenGeneration = generation;
+            diskState = null;
+            journalQueue.clear();
+            journalEntries.clear();
+            journalBytes = 0;
+            journalBase = null;
+            Files.deleteIfExists(journalPath);
+            return Files.deleteIfExists(filePath);
+        } catch (IOException e) {
+            LOGGER.error("Failed to delete config file: " + filePath, e);
+            return false;
+        } finally {
+            ioLock.unlock();
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Enables or disables copy-on-write mode. In this mode every mutation publishes a new root tree through
+     * a volatile reference, so getters and {@link #snapshot()} never take a lock. This suits files that are
+     * read from many threads (e.g. every tick) and written rarely; each write copies the top-level entries
+     * and any list it changes.
+     */
+    public ConfigFile setCopyOnWrite(boolean enabled) {
+        lock.writeLock().lock();
+        try {
+            if (enabled != copyOnWrite) {
+                copyOnWrite = enabled;
+                if (enabled) {
+                    publishedRoot = rootData;
+                } else {
+                    publishedRoot = null;
+                    // Readers may still hold the last published tree, so later in-place writes need their own
+                    rootData = rootData.deepCopy();
+                }
+            }
+            return this;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns true if reads are lock-free and writes publish a new root.
+     */
+    public boolean isCopyOnWrite() {
+        lock.readLock().lock();
+        try {
+            return copyOnWrite;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a consistent read-only view of the current data. In copy-on-write mode this is free;
+     * otherwise the data is copied under the read lock.
+     */
+    public ConfigView snapshot() {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return new ConfigView(published);
+        }
+        lock.readLock().lock();
+        try {
+            return new ConfigView(rootData.deepCopy());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a function against the current data while holding the read lock once, so that several values are read
+     * consistently without locking for each of them. The view must not be used after the function returns.
+     * In copy-on-write mode no lock is taken.
+     */
+    public <T> T read(Function<ConfigView, T> reader) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return reader.apply(new ConfigView(published));
+        }
+        lock.readLock().lock();
+        try {
+            return reader.apply(new ConfigView(rootData));
         } finally {
             lock.readLock().unlock();
         }
     }
 
     /**
-     * Checks if the configuration file physically exists on disk.
+     * Returns a typed handle to a top-level key that caches its decoded value until the file changes,
+     * for values that are read far more often than they are written.
+     *
+     * @param type {@code Integer.class}, {@code Long.class}, {@code Double.class}, {@code Boolean.class} or {@code String.class}
+     * @param defaultValue returned while the key is missing or holds a value of another type
+     * @throws IllegalArgumentException if the type is not supported
+     */
+    public <T> ConfigKey<T> key(String name, Class<T> type, T defaultValue) {
+        return new ConfigKey<>(this, Objects.requireNonNull(name, "name"), Objects.requireNonNull(type, "type"), defaultValue);
+    }
+
+    /**
+     * Returns the mutation generation, which changes whenever the data is modified or reloaded.
+     */
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * Applies several changes as one atomic step under a single write lock. The edits are made on a copy
+     * (only the root entries and the lists that are actually changed are copied), which replaces the data
+     * when the function returns. If the function throws, none of its changes are applied and the exception
+     * is rethrown. If anything changed, the file is saved once afterwards.
+     */
+    public ConfigFile edit(Consumer<ConfigEditor> edits) {
+        boolean modified;
+        lock.writeLock().lock();
+        try {
+            ConfigEditor editor = new ConfigEditor(rootData, true);
+            edits.accept(editor);
+            modified = editor.isModified();
+            commit(editor);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (modified) {
+            save();
+        }
+        return this;
+    }
+
+    // ==================== CHANGE EVENTS ====================
+
+    /**
+     * Calls a listener whenever the value of a top-level key or a nested path (e.g. {@code limits.max} or
+     * {@code items[0]}) changes, whether through a setter, an {@link #edit(Consumer)} session or a reload.
+     * The listener receives the old and new value and runs on the change executor, never on the writing thread.
+     * Changes that leave the value equal are not reported.
+     *
+     * @throws IllegalArgumentException if the path has a malformed array index
+     */
+    public ConfigSubscription subscribe(String keyOrPath, Consumer<ConfigChange> listener) {
+        Objects.requireNonNull(keyOrPath, "keyOrPath");
+        Objects.requireNonNull(listener, "listener");
+        lock.writeLock().lock();
+        try {
+            return notifier().subscribe(keyOrPath, listener);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a publisher of change batches: all top-level keys changed by one mutation, one edit session
+     * or one reload arrive together as one list. Delivery happens on the change executor.
+     * Subscribers that fall behind by more than {@link Flow#defaultBufferSize()} batches miss batches.
      */
-    public boolean exists() {
-        return Files.exists(filePath);
+    public Flow.Publisher<List<ConfigChange>> changes() {
+        lock.writeLock().lock();
+        try {
+            return notifier().publisher();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Deletes the configuration file from disk and clears the in-memory cache.
-     * @return true if successful, false otherwise
+     * Sets the executor change events are delivered on. Defaults to a shared background thread.
      */
-    public boolean delete() {
+    public ConfigFile setChangeExecutor(Executor executor) {
+        Objects.requireNonNull(executor, "executor");
         lock.writeLock().lock();
         try {
-            this.rootData = new JsonObject();
-            return Files.deleteIfExists(filePath);
-        } catch (IOException e) {
-            LOGGER.error("Failed to delete config file: " + filePath, e);
-            return false;
+            changeExecutor = executor;
+            if (notifier != null) {
+                notifier.setExecutor(executor);
+            }
+            return this;
         } finally {
             lock.writeLock().unlock();
         }
     }
 
+    private ChangeNotifier notifier() {
+        if (notifier == null) {
+            notifier = new ChangeNotifier(filePath.toString(), changeExecutor);
+        }
+        return notifier;
+    }
+
     /**
      * Returns the safe, normalized Path of this config file.
      */
@@ -202,9 +1319,18 @@ public final class ConfigFile {
         return filePath;
     }
 
+    /**
+     * Sets the schema, migrator, target version and defaults in one step and loads the file with them.
+     * If the file is already loaded with an identical configuration (same schema and migrator instances,
+     * equal target version and defaults), nothing is read from disk.
+     */
     public ConfigFile configure(JsonSchema schema, JsonMigrator migrator, String targetVersion, JsonObject defaultData) {
         lock.writeLock().lock();
         try {
+            if (loadedGeneration >= 0 && this.schema == schema && this.migrator == migrator
+                    && Objects.equals(this.targetVersion, targetVersion) && Objects.equals(this.defaultData, defaultData)) {
+                return this;
+            }
             this.schema = schema;
             this.migrator = migrator;
             this.targetVersion = targetVersion;
@@ -219,6 +1345,9 @@ public final class ConfigFile {
     public ConfigFile setSchema(JsonSchema schema) {
         lock.writeLock().lock();
         try {
+            if (loadedGeneration >= 0 && this.schema == schema) {
+                return this;
+            }
             this.schema = schema;
             loadFromDisk();
             return this;
@@ -230,6 +1359,9 @@ public final class ConfigFile {
     public ConfigFile setMigrator(JsonMigrator migrator, String targetVersion) {
         lock.writeLock().lock();
         try {
+            if (loadedGeneration >= 0 && this.migrator == migrator && Objects.equals(this.targetVersion, targetVersion)) {
+                return this;
+            }
             this.migrator = migrator;
             this.targetVersion = targetVersion;
             loadFromDisk();
@@ -242,6 +1374,9 @@ public final class ConfigFile {
     public ConfigFile setDefaultData(JsonObject defaultData) {
         lock.writeLock().lock();
         try {
+            if (loadedGeneration >= 0 && Objects.equals(this.defaultData, defaultData)) {
+                return this;
+            }
             this.defaultData = defaultData;
             loadFromDisk();
             return this;
@@ -250,16 +1385,62 @@ public final class ConfigFile {
         }
     }
 
+    // ==================== SLOTS ====================
+
+    /**
+     * Compiles a top-level key into this file's flat scalar store and returns its slot handle, for values read
+     * thousands of times per tick. Numbers and booleans of all slot keys are decoded once whenever the data is
+     * loaded or one of them is modified, and the slot getters then read them from plain arrays without
+     * locking, hashing or allocating. Asking for the same key again returns the same slot.
+     */
+    public int slot(String key) {
+        Objects.requireNonNull(key, "key");
+        lock.writeLock().lock();
+        try {
+            Integer existing = slotIndex.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            int slot = slotKeys.size();
+            slotKeys.add(key);
+            slotIndex.put(key, slot);
+            refreshScalars();
+            return slot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getInt(int slot, int defaultValue) {
+        ScalarStore store = scalars;
+        return store.isNumber(slot) ? (int) store.longValue(slot) : defaultValue;
+    }
+
+    public long getLong(int slot, long defaultValue) {
+        ScalarStore store = scalars;
+        return store.isNumber(slot) ? store.longValue(slot) : defaultValue;
+    }
+
+    public double getDouble(int slot, double defaultValue) {
+        ScalarStore store = scalars;
+        return store.isNumber(slot) ? store.doubleValue(slot) : defaultValue;
+    }
+
+    public boolean getBoolean(int slot, boolean defaultValue) {
+        ScalarStore store = scalars;
+        return store.isBoolean(slot) ? store.booleanValue(slot) : defaultValue;
+    }
+
     // ==================== GETTERS ====================
 
     public String getString(String key, String defaultValue) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getString(published, key, defaultValue);
+        }
         lock.readLock().lock();
         try {
-            JsonElement el = rootData.get(key);
-            if (el != null && el.isJsonPrimitive() && el.getAsJsonPrimitive().isString()) {
-                return el.getAsString();
-            }
-            return defaultValue;
+            return Values.getString(rootData, key, defaultValue);
         } finally {
             lock.readLock().unlock();
         }
@@ -270,104 +1451,104 @@ public final class ConfigFile {
     }
 
     public int getInt(String key, int defaultValue) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getInt(published, key, defaultValue);
+        }
         lock.readLock().lock();
         try {
-            JsonElement el = rootData.get(key);
-            if (el != null && el.isJsonPrimitive() && el.getAsJsonPrimitive().isNumber()) {
-                return el.getAsInt();
-            }
-            return defaultValue;
+            return Values.getInt(rootData, key, defaultValue);
         } finally {
             lock.readLock().unlock();
         }
     }
 
     public OptionalInt getInt(String key) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getInt(published, key);
+        }
         lock.readLock().lock();
         try {
-            JsonElement el = rootData.get(key);
-            if (el != null && el.isJsonPrimitive() && el.getAsJsonPrimitive().isNumber()) {
-                return OptionalInt.of(el.getAsInt());
-            }
-            return OptionalInt.empty();
+            return Values.getInt(rootData, key);
         } finally {
             lock.readLock().unlock();
         }
     }
 
     public long getLong(String key, long defaultValue) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getLong(published, key, defaultValue);
+        }
         lock.readLock().lock();
         try {
-            JsonElement el = rootData.get(key);
-            if (el != null && el.isJsonPrimitive() && el.getAsJsonPrimitive().isNumber()) {
-                return el.getAsLong();
-            }
-            return defaultValue;
+            return Values.getLong(rootData, key, defaultValue);
         } finally {
             lock.readLock().unlock();
         }
     }
 
     public OptionalLong getLong(String key) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getLong(published, key);
+        }
         lock.readLock().lock();
         try {
-            JsonElement el = rootData.get(key);
-            if (el != null && el.isJsonPrimitive() && el.getAsJsonPrimitive().isNumber()) {
-                return OptionalLong.of(el.getAsLong());
-            }
-            return OptionalLong.empty();
+            return Values.getLong(rootData, key);
         } finally {
             lock.readLock().unlock();
         }
     }
 
     public double getDouble(String key, double defaultValue) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getDouble(published, key, defaultValue);
+        }
         lock.readLock().lock();
         try {
-            JsonElement el = rootData.get(key);
-            if (el != null && el.isJsonPrimitive() && el.getAsJsonPrimitive().isNumber()) {
-                return el.getAsDouble();
-            }
-            return defaultValue;
+            return Values.getDouble(rootData, key, defaultValue);
         } finally {
             lock.readLock().unlock();
         }
     }
 
     public OptionalDouble getDouble(String key) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getDouble(published, key);
+        }
         lock.readLock().lock();
         try {
-            JsonElement el = rootData.get(key);
-            if (el != null && el.isJsonPrimitive() && el.getAsJsonPrimitive().isNumber()) {
-                return OptionalDouble.of(el.getAsDouble());
-            }
-            return OptionalDouble.empty();
+            return Values.getDouble(rootData, key);
         } finally {
             lock.readLock().unlock();
         }
     }
 
     public boolean getBoolean(String key, boolean defaultValue) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getBoolean(published, key, defaultValue);
+        }
         lock.readLock().lock();
         try {
-            JsonElement el = rootData.get(key);
-            if (el != null && el.isJsonPrimitive() && el.getAsJsonPrimitive().isBoolean()) {
-                return el.getAsBoolean();
-            }
-            return defaultValue;
+            return Values.getBoolean(rootData, key, defaultValue);
         } finally {
             lock.readLock().unlock();
         }
     }
 
     public Boolean getBoolean(String key) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getBoolean(published, key);
+        }
         lock.readLock().lock();
         try {
-            JsonElement el = rootData.get(key);
-            if (el != null && el.isJsonPrimitive() && el.getAsJsonPrimitive().isBoolean()) {
-                return el.getAsBoolean();
-            }
-            return null;
+            return Values.getBoolean(rootData, key);
         } finally {
             lock.readLock().unlock();
         }
@@ -378,11 +1559,9 @@ public final class ConfigFile {
     public ConfigFile set(String key, String value) {
         lock.writeLock().lock();
         try {
-            if (value == null) {
-                rootData.remove(key);
-            } else {
-                rootData.addProperty(key, value);
-            }
+            ConfigEditor editor = newEditor();
+            editor.set(key, value);
+            commit(editor);
             return this;
         } finally {
             lock.writeLock().unlock();
@@ -392,7 +1571,9 @@ public final class ConfigFile {
     public ConfigFile set(String key, int value) {
         lock.writeLock().lock();
         try {
-            rootData.addProperty(key, value);
+            ConfigEditor editor = newEditor();
+            editor.set(key, value);
+            commit(editor);
             return this;
         } finally {
             lock.writeLock().unlock();
@@ -402,7 +1583,9 @@ public final class ConfigFile {
     public ConfigFile set(String key, long value) {
         lock.writeLock().lock();
         try {
-            rootData.addProperty(key, value);
+            ConfigEditor editor = newEditor();
+            editor.set(key, value);
+            commit(editor);
             return this;
         } finally {
             lock.writeLock().unlock();
@@ -412,7 +1595,9 @@ public final class ConfigFile {
     public ConfigFile set(String key, double value) {
         lock.writeLock().lock();
         try {
-            rootData.addProperty(key, value);
+            ConfigEditor editor = newEditor();
+            editor.set(key, value);
+            commit(editor);
             return this;
         } finally {
             lock.writeLock().unlock();
@@ -422,7 +1607,170 @@ public final class ConfigFile {
     public ConfigFile set(String key, boolean value) {
         lock.writeLock().lock();
         try {
-            rootData.addProperty(key, value);
+            ConfigEditor editor = newEditor();
+            editor.set(key, value);
+            commit(editor);
+            return this;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== NESTED PATHS ====================
+
+    public String getString(JsonPath path, String defaultValue) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getString(published, path, defaultValue);
+        }
+        lock.readLock().lock();
+        try {
+            return Values.getString(rootData, path, defaultValue);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getInt(JsonPath path, int defaultValue) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getInt(published, path, defaultValue);
+        }
+        lock.readLock().lock();
+        try {
+            return Values.getInt(rootData, path, defaultValue);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getLong(JsonPath path, long defaultValue) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getLong(published, path, defaultValue);
+        }
+        lock.readLock().lock();
+        try {
+            return Values.getLong(rootData, path, defaultValue);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double getDouble(JsonPath path, double defaultValue) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getDouble(published, path, defaultValue);
+        }
+        lock.readLock().lock();
+        try {
+            return Values.getDouble(rootData, path, defaultValue);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean getBoolean(JsonPath path, boolean defaultValue) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.getBoolean(published, path, defaultValue);
+        }
+        lock.readLock().lock();
+        try {
+            return Values.getBoolean(rootData, path, defaultValue);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks if a value exists at a nested path.
+     */
+    public boolean has(JsonPath path) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.has(published, path);
+        }
+        lock.readLock().lock();
+        try {
+            return Values.has(rootData, path);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ConfigFile set(JsonPath path, String value) {
+        lock.writeLock().lock();
+        try {
+            ConfigEditor editor = newEditor();
+            editor.set(path, value);
+            commit(editor);
+            return this;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ConfigFile set(JsonPath path, int value) {
+        lock.writeLock().lock();
+        try {
+            ConfigEditor editor = newEditor();
+            editor.set(path, value);
+            commit(editor);
+            return this;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ConfigFile set(JsonPath path, long value) {
+        lock.writeLock().lock();
+        try {
+            ConfigEditor editor = newEditor();
+            editor.set(path, value);
+            commit(editor);
+            return this;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ConfigFile set(JsonPath path, double value) {
+        lock.writeLock().lock();
+        try {
+            ConfigEditor editor = newEditor();
+            editor.set(path, value);
+            commit(editor);
+            return this;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ConfigFile set(JsonPath path, boolean value) {
+        lock.writeLock().lock();
+        try {
+            ConfigEditor editor = newEditor();
+            editor.set(path, value);
+            commit(editor);
+            return this;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets a nested value, creating missing intermediate objects and arrays. The element is stored as is and
+     * must not be modified afterwards. A null value is stored as JSON null.
+     *
+     * @throws IllegalArgumentException if the path starts with an array index
+     */
+    public ConfigFile set(JsonPath path, JsonElement value) {
+        lock.writeLock().lock();
+        try {
+            ConfigEditor editor = newEditor();
+            editor.set(path, value);
+            commit(editor);
             return this;
         } finally {
             lock.writeLock().unlock();
@@ -431,26 +1779,72 @@ public final class ConfigFile {
 
     // ==================== ARRAY OPERATIONS ====================
 
+    /**
+     * Enables or disables hash indexes for list membership. When enabled, each list gets an index of its values
+     * the first time it is checked or changed, which makes {@link #listContains}, {@link #addToList} and the
+     * not-found case of {@link #removeFromList} O(1) instead of a scan of the list. Indexes are kept in step with
+     * later changes and dropped on reload. This suits large whitelists and blocklists; in copy-on-write mode
+     * {@link #listContains} then takes the read lock.
+     */
+    public ConfigFile setListIndexing(boolean enabled) {
+        lock.writeLock().lock();
+        try {
+            listIndexing = enabled;
+            if (!enabled) {
+                listIndexes.clear();
+            }
+            return this;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isListIndexing() {
+        return listIndexing;
+    }
+
     /**
      * Gets a list of string elements from a JSON array under the given key.
+     * The list is unmodifiable and shared between callers until the file is modified or reloaded.
      */
     public List<String> getStringList(String key) {
+        // Read the generation before the data, so a cached list is never older than its generation
+        long current = generation;
+        Cached<List<String>> cached = cachedLists.get(key);
+        if (cached != null && cached.generation == current) {
+            return cached.value;
+        }
+        List<String> list;
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            list = Values.getStringList(published, key);
+        } else {
+            lock.readLock().lock();
+            try {
+                list = Values.getStringList(rootData, key);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        list = Collections.unmodifiableList(list);
+        cachedLists.put(key, new Cached<>(current, list));
+        return list;
+    }
+
+    /**
+     * Passes each element of the JSON array under the given key to an action, converted as in
+     * {@link #getStringList(String)}, without building a list. Outside copy-on-write mode this holds
+     * the read lock, so the action must not modify this file.
+     */
+    public void forEachInList(String key, Consumer<String> action) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            Values.forEachInList(published, key, action);
+            return;
+        }
         lock.readLock().lock();
         try {
-            JsonElement el = rootData.get(key);
-            if (el != null && el.isJsonArray()) {
-                JsonArray array = el.getAsJsonArray();
-                List<String> list = new ArrayList<>(array.size());
-                for (JsonElement item : array) {
-                    if (item.isJsonPrimitive()) {
-                        list.add(item.getAsString());
-                    } else {
-                        list.add(item.toString());
-                    }
-                }
-                return list;
-            }
-            return Collections.emptyList();
+            Values.forEachInList(rootData, key, action);
         } finally {
             lock.readLock().unlock();
         }
@@ -464,24 +1858,19 @@ public final class ConfigFile {
     public boolean addToList(String key, String value) {
         lock.writeLock().lock();
         try {
-            JsonArray array;
-            JsonElement el = rootData.get(key);
-            if (el != null && el.isJsonArray()) {
-                array = el.getAsJsonArray();
+            ConfigEditor editor = newEditor();
+            ListIndex index = listIndex(key, value);
+            boolean added;
+            if (index == null) {
+                added = editor.addToList(key, value);
             } else {
-                array = new JsonArray();
-                rootData.add(key, array);
-            }
-
-            // Duplicate check (exact match)
-            for (JsonElement item : array) {
-                if (item.isJsonPrimitive() && item.getAsString().equals(value)) {
-                    return false;
+                added = !index.contains(value);
+                if (added) {
+                    editor.appendToList(key, value);
                 }
             }
-
-            array.add(value);
-            return true;
+            commit(editor);
+            return added;
         } finally {
             lock.writeLock().unlock();
         }
@@ -494,26 +1883,13 @@ public final class ConfigFile {
     public boolean removeFromList(String key, String value) {
         lock.writeLock().lock();
         try {
-            JsonElement el = rootData.get(key);
-            if (el == null || !el.isJsonArray()) {
+            ListIndex index = listIndex(key, value);
+            if (index != null && !index.contains(value)) {
                 return false;
             }
-
-            JsonArray array = el.getAsJsonArray();
-            JsonArray updated = new JsonArray();
-            boolean removed = false;
-
-            for (JsonElement item : array) {
-                if (item.isJsonPrimitive() && item.getAsString().equals(value)) {
-                    removed = true;
-                    continue;
-                }
-                updated.add(item);
-            }
-
-            if (removed) {
-                rootData.add(key, updated);
-            }
+            ConfigEditor editor = newEditor();
+            boolean removed = editor.removeFromList(key, value);
+            commit(editor);
             return removed;
         } finally {
             lock.writeLock().unlock();
@@ -524,29 +1900,101 @@ public final class ConfigFile {
      * Checks if a JSON array contains the given value (EXACT match).
      */
     public boolean listContains(String key, String value) {
+        if (listIndexing) {
+            lock.readLock().lock();
+            try {
+                ListIndex index = listIndex(key, value);
+                return index != null ? index.contains(value) : Values.listContains(rootData, key, value);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.listContains(published, key, value);
+        }
         lock.readLock().lock();
         try {
-            JsonElement el = rootData.get(key);
-            if (el != null && el.isJsonArray()) {
-                for (JsonElement item : el.getAsJsonArray()) {
-                    if (item.isJsonPrimitive() && item.getAsString().equals(value)) {
-                        return true;
-                    }
-                }
-            }
-            return false;
+            return Values.listContains(rootData, key, value);
         } finally {
             lock.readLock().unlock();
         }
     }
 
+    /**
+     * Adds every value that is not in the list yet, in a single pass under one lock acquisition.
+     * Duplicates within {@code values} and nulls are skipped; the list is created if it does not exist.
+     * @return the number of values added
+     */
+    public int addAllToList(String key, Collection<String> values) {
+        lock.writeLock().lock();
+        try {
+            ConfigEditor editor = newEditor();
+            int count = editor.addAllToList(key, values);
+            commit(editor);
+            return count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every occurrence of the given values from the list in a single pass under one lock acquisition.
+     * @return the number of elements removed
+     */
+    public int removeAllFromList(String key, Collection<String> values) {
+        lock.writeLock().lock();
+        try {
+            ConfigEditor editor = newEditor();
+            int count = editor.removeAllFromList(key, values);
+            commit(editor);
+            return count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every element that is not one of the given values, in a single pass under one lock acquisition.
+     * @return the number of elements removed
+     */
+    public int retainAllInList(String key, Collection<String> values) {
+        lock.writeLock().lock();
+        try {
+            ConfigEditor editor = newEditor();
+            int count = editor.retainAllInList(key, values);
+            commit(editor);
+            return count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the list with the given values in order, skipping duplicates and nulls.
+     * @return the number of elements in the new list
+     */
+    public int replaceList(String key, Collection<String> values) {
+        lock.writeLock().lock();
+        try {
+            ConfigEditor editor = newEditor();
+            int count = editor.replaceList(key, values);
+            commit(editor);
+            return count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     /**
      * Clears all elements from the JSON array under the given key.
      */
     public void clearList(String key) {
         lock.writeLock().lock();
         try {
-            rootData.add(key, new JsonArray());
+            ConfigEditor editor = newEditor();
+            editor.clearList(key);
+            commit(editor);
         } finally {
             lock.writeLock().unlock();
         }
@@ -558,9 +2006,13 @@ public final class ConfigFile {
      * Checks if a top-level key exists.
      */
     public boolean hasKey(String key) {
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            return Values.hasKey(published, key);
+        }
         lock.readLock().lock();
         try {
-            return rootData.has(key);
+            return Values.hasKey(rootData, key);
         } finally {
             lock.readLock().unlock();
         }
@@ -568,14 +2020,29 @@ public final class ConfigFile {
 
     /**
      * Returns a set of all top-level keys in the configuration.
+     * The set is unmodifiable and shared between callers until the file is modified or reloaded.
      */
     public Set<String> keys() {
-        lock.readLock().lock();
-        try {
-            return new HashSet<>(rootData.keySet());
-        } finally {
-            lock.readLock().unlock();
+        long current = generation;
+        Cached<Set<String>> cached = cachedKeys;
+        if (cached != null && cached.generation == current) {
+            return cached.value;
+        }
+        Set<String> keys;
+        JsonObject published = publishedRoot;
+        if (published != null) {
+            keys = Values.keys(published);
+        } else {
+            lock.readLock().lock();
+            try {
+                keys = Values.keys(rootData);
+            } finally {
+                lock.readLock().unlock();
+            }
         }
+        keys = Collections.unmodifiableSet(keys);
+        cachedKeys = new Cached<>(current, keys);
+        return keys;
     }
 
     /**
@@ -585,11 +2052,10 @@ public final class ConfigFile {
     public boolean removeKey(String key) {
         lock.writeLock().lock();
         try {
-            if (rootData.has(key)) {
-                rootData.remove(key);
-                return true;
-            }
-            return false;
+            ConfigEditor editor = newEditor();
+            boolean removed = editor.removeKey(key);
+            commit(editor);
+            return removed;
         } finally {
             lock.writeLock().unlock();
         }
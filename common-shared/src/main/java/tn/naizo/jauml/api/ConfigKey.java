@@ -0,0 +1,165 @@
+package tn.naizo.jauml.api;
+
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+/**
+ * A typed handle to one top-level key of a config file, obtained from {@link ConfigFile#key(String, Class, Object)}.
+ * The decoded value is cached and only looked up again after the file has been modified or reloaded,
+ * so repeated reads cost a generation check and a field load. Handles are thread-safe.
+ *
+ * @param <T> one of {@code Integer}, {@code Long}, {@code Double}, {@code Boolean} or {@code String}
+ */
+public final class ConfigKey<T> {
+
+    private final ConfigFile file;
+    private final String name;
+    private final Class<T> type;
+    private final T defaultValue;
+    // Immutable, so a racy read always sees a complete value; at worst a stale one that fails the generation check
+    private Resolved<T> resolved;
+
+    ConfigKey(ConfigFile file, String name, Class<T> type, T defaultValue) {
+        if (type != Integer.class && type != Long.class && type != Double.class && type != Boolean.class && type != String.class) {
+            throw new IllegalArgumentException("Unsupported config key type: " + type.getName());
+        }
+        this.file = file;
+        this.name = name;
+        this.type = type;
+        this.defaultValue = defaultValue;
+        this.resolved = new Resolved<>(-1, defaultValue);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    public T defaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * Returns the current value, or the default if the key is missing or holds a value of another type.
+     */
+    public T get() {
+        return current().value;
+    }
+
+    /**
+     * Returns the current value of a numeric key as an int, without boxing.
+     */
+    public int getAsInt() {
+        return (int) number().longValue;
+    }
+
+    /**
+     * Returns the current value of a numeric key as a long, without boxing.
+     */
+    public long getAsLong() {
+        return number().longValue;
+    }
+
+    /**
+     * Returns the current value of a numeric key as a double, without boxing.
+     */
+    public double getAsDouble() {
+        return number().doubleValue;
+    }
+
+    /**
+     * Returns the current value of a boolean key, without boxing.
+     */
+    public boolean getAsBoolean() {
+        if (type != Boolean.class) {
+            throw new IllegalStateException("Config key '" + name + "' is not a Boolean key");
+        }
+        return current().longValue != 0;
+    }
+
+    /**
+     * Sets the value in the file. A null value removes the key.
+     */
+    public ConfigFile set(T value) {
+        if (value == null) {
+            file.removeKey(name);
+        } else if (type == Integer.class) {
+            file.set(name, (Integer) value);
+        } else if (type == Long.class) {
+            file.set(name, (Long) value);
+        } else if (type == Double.class) {
+            file.set(name, (Double) value);
+        } else if (type == Boolean.class) {
+            file.set(name, (Boolean) value);
+        } else {
+            file.set(name, (String) value);
+        }
+        return file;
+    }
+
+    private Resolved<T> number() {
+        if (type != Integer.class && type != Long.class && type != Double.class) {
+            throw new IllegalStateException("Config key '" + name + "' is not a numeric key");
+        }
+        return current();
+    }
+
+    private Resolved<T> current() {
+        Resolved<T> cached = resolved;
+        long generation = file.generation();
+        if (cached.generation == generation) {
+            return cached;
+        }
+        // Read the generation before the value: a value newer than its generation is only looked up again
+        Resolved<T> fresh = new Resolved<>(generation, file.read(this::decode));
+        resolved = fresh;
+        return fresh;
+    }
+
+    private T decode(ConfigView view) {
+        Object value;
+        if (type == Integer.class) {
+            OptionalInt v = view.getInt(name);
+            value = v.isPresent() ? Integer.valueOf(v.getAsInt()) : null;
+        } else if (type == Long.class) {
+            OptionalLong v = view.getLong(name);
+            value = v.isPresent() ? Long.valueOf(v.getAsLong()) : null;
+        } else if (type == Double.class) {
+            OptionalDouble v = view.getDouble(name);
+            value = v.isPresent() ? Double.valueOf(v.getAsDouble()) : null;
+        } else if (type == Boolean.class) {
+            value = view.getBoolean(name);
+        } else {
+            value = view.getString(name);
+        }
+        return value != null ? type.cast(value) : defaultValue;
+    }
+
+    private static final class Resolved<T> {
+        final long generation;
+        final T value;
+        final long longValue;
+        final double doubleValue;
+
+        Resolved(long generation, T value) {
+            this.generation = generation;
+            this.value = value;
+            if (value instanceof Number) {
+                this.longValue = ((Number) value).longValue();
+                this.doubleValue = ((Number) value).doubleValue();
+            } else {
+                this.longValue = Boolean.TRUE.equals(value) ? 1 : 0;
+                this.doubleValue = longValue;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigKey[" + name + ": " + type.getSimpleName() + "]";
+    }
+}
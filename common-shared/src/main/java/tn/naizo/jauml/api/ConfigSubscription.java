@@ -0,0 +1,13 @@
+package tn.naizo.jauml.api;
+
+/**
+ * Handle returned by {@link ConfigFile#subscribe(String, java.util.function.Consumer)}; closing it stops delivery.
+ */
+public interface ConfigSubscription extends AutoCloseable {
+
+    /**
+     * Unsubscribes the listener. Events already being delivered may still arrive.
+     */
+    @Override
+    void close();
+}
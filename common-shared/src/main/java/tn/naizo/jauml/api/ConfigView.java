@@ -0,0 +1,106 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonObject;
+
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+
+/**
+ * A read-only view of a config file's data at a single point in time, obtained from {@link ConfigFile#snapshot()}.
+ * Values read from one view are always consistent with each other, regardless of concurrent writes to the file.
+ * Views are thread-safe and never take a lock.
+ */
+public final class ConfigView {
+
+    private final JsonObject root;
+
+    /**
+     * @param root a tree that is never modified again
+     */
+    ConfigView(JsonObject root) {
+        this.root = root;
+    }
+
+    public String getString(String key, String defaultValue) {
+        return Values.getString(root, key, defaultValue);
+    }
+
+    public String getString(String key) {
+        return Values.getString(root, key, null);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        return Values.getInt(root, key, defaultValue);
+    }
+
+    public OptionalInt getInt(String key) {
+        return Values.getInt(root, key);
+    }
+
+    public long getLong(String key, long defaultValue) {
+        return Values.getLong(root, key, defaultValue);
+    }
+
+    public OptionalLong getLong(String key) {
+        return Values.getLong(root, key);
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        return Values.getDouble(root, key, defaultValue);
+    }
+
+    public OptionalDouble getDouble(String key) {
+        return Values.getDouble(root, key);
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        return Values.getBoolean(root, key, defaultValue);
+    }
+
+    public Boolean getBoolean(String key) {
+        return Values.getBoolean(root, key);
+    }
+
+    public List<String> getStringList(String key) {
+        return Values.getStringList(root, key);
+    }
+
+    public boolean listContains(String key, String value) {
+        return Values.listContains(root, key, value);
+    }
+
+    public boolean hasKey(String key) {
+        return Values.hasKey(root, key);
+    }
+
+    public Set<String> keys() {
+        return Values.keys(root);
+    }
+
+    public String getString(JsonPath path, String defaultValue) {
+        return Values.getString(root, path, defaultValue);
+    }
+
+    public int getInt(JsonPath path, int defaultValue) {
+        return Values.getInt(root, path, defaultValue);
+    }
+
+    public long getLong(JsonPath path, long defaultValue) {
+        return Values.getLong(root, path, defaultValue);
+    }
+
+    public double getDouble(JsonPath path, double defaultValue) {
+        return Values.getDouble(root, path, defaultValue);
+    }
+
+    public boolean getBoolean(JsonPath path, boolean defaultValue) {
+        return Values.getBoolean(root, path, defaultValue);
+    }
+
+    public boolean has(JsonPath path) {
+        return Values.has(root, path);
+    }
+}
@@ -0,0 +1,131 @@
+package tn.naizo.jauml.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tn.naizo.jauml.internal.SaveScheduler;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * A single shared thread that watches the directories of all registered config files
+ * and reloads a file once its directory has been quiet for the debounce window.
+ */
+final class ConfigWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("JaumlConfig");
+
+    private final WatchService watchService;
+    private final long debounceMillis;
+    private final Map<Path, WatchKey> directories = new ConcurrentHashMap<>();
+    private final Map<Path, ConfigFile> files = new ConcurrentHashMap<>();
+    private final Map<Path, ScheduledFuture<?>> pendingReloads = new ConcurrentHashMap<>();
+    private final Thread thread;
+
+    ConfigWatcher(long debounceMillis) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.debounceMillis = debounceMillis;
+        this.thread = new Thread(this::run, "Jauml-Watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Starts watching the given file. Its parent directory is created if needed so it can be registered.
+     */
+    void register(ConfigFile file) {
+        Path path = file.path();
+        Path directory = path.getParent();
+        if (directory == null) {
+            return;
+        }
+        files.put(path, file);
+        directories.computeIfAbsent(directory, dir -> {
+            try {
+                Files.createDirectories(dir);
+                return dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            } catch (IOException | ClosedWatchServiceException e) {
+                LOGGER.warn("Unable to watch config directory {} for changes: {}", dir, e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Stops the watcher thread and cancels any reloads that have not run yet.
+     */
+    void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close config watcher", e);
+        }
+        pendingReloads.values().forEach(future -> future.cancel(false));
+        pendingReloads.clear();
+    }
+
+    private void run() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // Events were dropped; re-check every file in this directory
+                    for (Path path : files.keySet()) {
+                        if (directory.equals(path.getParent())) {
+                            scheduleReload(path);
+                        }
+                    }
+                    continue;
+                }
+                Path changed = directory.resolve((Path) event.context());
+                if (files.containsKey(changed)) {
+                    scheduleReload(changed);
+                }
+            }
+            if (!key.reset()) {
+                directories.remove(directory);
+            }
+        }
+    }
+
+    private void scheduleReload(Path path) {
+        // Each new event restarts the debounce window, so editor save storms cause a single reload
+        pendingReloads.compute(path, (p, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            return SaveScheduler.schedule(() -> reload(p), debounceMillis);
+        });
+    }
+
+    private void reload(Path path) {
+        pendingReloads.remove(path);
+        ConfigFile file = files.get(path);
+        if (file == null) {
+            return;
+        }
+        try {
+            if (file.reloadIfModified()) {
+                LOGGER.info("Reloaded config file {} after an external change", path);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to hot reload config file: " + path, e);
+        }
+    }
+}
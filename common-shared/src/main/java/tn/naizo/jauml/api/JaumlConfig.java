@@ -3,17 +3,45 @@ package tn.naizo.jauml.api;
 import tn.naizo.jauml.internal.PathValidator;
 import tn.naizo.jauml.spi.PlatformProvider;
 import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 public final class JaumlConfig {
 
     private static final PlatformProvider PLATFORM_PROVIDER = loadPlatformProvider();
+    private static final Logger LOGGER = LoggerFactory.getLogger("JaumlConfig");
     private static final Map<Path, ConfigFile> CACHE = new ConcurrentHashMap<>();
+    private static final int MAX_PRELOAD_THREADS = 8;
+    private static final String SNAPSHOT_DIRECTORY = ".jauml-cache";
+    private static volatile Duration defaultWriteBehind = Duration.ZERO;
+    private static volatile SaveDurability defaultDurability = SaveDurability.NONE;
+    private static volatile long defaultMappedReadThreshold = Long.MAX_VALUE;
+    private static volatile OutputFormat defaultOutputFormat = OutputFormat.PRETTY;
+    private static volatile Path defaultSnapshotDirectory;
+    private static volatile boolean defaultCopyOnWrite;
+    private static ConfigWatcher watcher; // guarded by JaumlConfig.class
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(JaumlConfig::flushAll, "Jauml-Shutdown-Flush"));
+    }
 
     public static final String LIBRARY_VERSION = "2.1.1";
 
@@ -63,7 +91,7 @@ public final class JaumlConfig {
      */
     public static ConfigFile open(String subdirectory, String fileName) {
         Path resolved = PathValidator.resolveSafe(PLATFORM_PROVIDER.getConfigDirectory(), subdirectory, fileName);
-        return CACHE.computeIfAbsent(resolved, ConfigFile::new);
+        return CACHE.computeIfAbsent(resolved, JaumlConfig::create);
     }
 
     /**
@@ -85,11 +113,13 @@ public final class JaumlConfig {
      */
     public static ConfigFile open(String subdirectory, String fileName, JsonSchema schema, JsonMigrator migrator, String targetVersion, JsonObject defaultData) {
         Path resolved = PathValidator.resolveSafe(PLATFORM_PROVIDER.getConfigDirectory(), subdirectory, fileName);
-        return CACHE.compute(resolved, (path, existing) -> {
-            ConfigFile created = existing != null ? existing : new ConfigFile(path);
-            created.configure(schema, migrator, targetVersion, defaultData);
-            return created;
-        });
+        ConfigFile cached = CACHE.get(resolved);
+        if (cached != null) {
+            return cached.configure(schema, migrator, targetVersion, defaultData);
+        }
+        return CACHE.compute(resolved, (path, existing) -> existing != null
+                ? existing.configure(schema, migrator, targetVersion, defaultData)
+                : create(path, schema, migrator, targetVersion, defaultData));
     }
 
     /**
@@ -110,7 +140,7 @@ public final class JaumlConfig {
             if (existing != null) {
                 return existing;
             }
-            ConfigFile created = new ConfigFile(path);
+            ConfigFile created = create(path);
             if (!created.exists() && defaults != null) {
                 defaults.accept(created);
                 created.save();
@@ -119,6 +149,274 @@ public final class JaumlConfig {
         });
     }
 
+    private static ConfigFile create(Path path) {
+        return create(path, null, null, null, null);
+    }
+
+    /**
+     * Creates a config file with the default options and the given configuration, reading it from disk exactly once.
+     */
+    private static ConfigFile create(Path path, JsonSchema schema, JsonMigrator migrator, String targetVersion, JsonObject defaultData) {
+        ConfigFile file = new ConfigFile(path)
+                .setWriteBehind(defaultWriteBehind)
+                .setDurability(defaultDurability)
+                .setMappedReadThreshold(defaultMappedReadThreshold)
+                .setOutputFormat(defaultOutputFormat)
+                .setSnapshotDirectory(defaultSnapshotDirectory)
+                .setCopyOnWrite(defaultCopyOnWrite)
+                .configure(schema, migrator, targetVersion, defaultData);
+        synchronized (JaumlConfig.class) {
+            if (watcher != null) {
+                watcher.register(file);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Sets the write-behind window applied to every cached and newly opened config file.
+     * Saves within the window are coalesced into one background write per file.
+     * Pass {@link Duration#ZERO} to write on every save (the default).
+     */
+    public static void setWriteBehind(Duration window) {
+        defaultWriteBehind = window == null || window.isNegative() ? Duration.ZERO : window;
+        for (ConfigFile file : CACHE.values()) {
+            file.setWriteBehind(defaultWriteBehind);
+        }
+    }
+
+    /**
+     * Sets the save durability tier applied to every cached and newly opened config file.
+     */
+    public static void setDurability(SaveDurability durability) {
+        defaultDurability = durability == null ? SaveDurability.NONE : durability;
+        for (ConfigFile file : CACHE.values()) {
+            file.setDurability(defaultDurability);
+        }
+    }
+
+    /**
+     * Sets the file size from which every cached and newly opened config file is loaded through a memory mapping.
+     * Use {@link Long#MAX_VALUE} to disable (the default).
+     */
+    public static void setMappedReadThreshold(long bytes) {
+        defaultMappedReadThreshold = bytes < 0 ? Long.MAX_VALUE : bytes;
+        for (ConfigFile file : CACHE.values()) {
+            file.setMappedReadThreshold(defaultMappedReadThreshold);
+        }
+    }
+
+    /**
+     * Sets the output format applied to every cached and newly opened config file.
+     */
+    public static void setOutputFormat(OutputFormat format) {
+        defaultOutputFormat = format == null ? OutputFormat.PRETTY : format;
+        for (ConfigFile file : CACHE.values()) {
+            file.setOutputFormat(defaultOutputFormat);
+        }
+    }
+
+    /**
+     * Enables or disables copy-on-write mode (lock-free reads) for every cached and newly opened config file.
+     * See {@link ConfigFile#setCopyOnWrite(boolean)}.
+     */
+    public static void setCopyOnWrite(boolean enabled) {
+        defaultCopyOnWrite = enabled;
+        for (ConfigFile file : CACHE.values()) {
+            file.setCopyOnWrite(enabled);
+        }
+    }
+
+    /**
+     * Enables or disables the binary snapshot cache for every cached and newly opened config file.
+     * Snapshots are kept in {@value #SNAPSHOT_DIRECTORY} under the config directory; unchanged files
+     * are then loaded from their snapshot without being parsed, migrated, normalized or validated again.
+     */
+    public static void setSnapshotCache(boolean enabled) {
+        defaultSnapshotDirectory = enabled ? PLATFORM_PROVIDER.getConfigDirectory().resolve(SNAPSHOT_DIRECTORY) : null;
+        for (ConfigFile file : CACHE.values()) {
+            file.setSnapshotDirectory(defaultSnapshotDirectory);
+        }
+    }
+
+    /**
+     * Returns true if config files are loaded through the binary snapshot cache.
+     */
+    public static boolean isSnapshotCacheEnabled() {
+        return defaultSnapshotDirectory != null;
+    }
+
+    /**
+     * Starts a single shared watcher thread that reloads cached config files when they are edited on disk.
+     * Changes are debounced, so a burst of writes from an editor results in one reload, and events
+     * caused by this library's own saves are ignored. Calling this again replaces the debounce window.
+     *
+     * @param debounce how long a file must stay unchanged before it is reloaded
+     */
+    public static synchronized void enableHotReload(Duration debounce) {
+        disableHotReload();
+        long millis = debounce == null || debounce.isNegative() ? 0 : debounce.toMillis();
+        try {
+            watcher = new ConfigWatcher(millis);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start config file watcher", e);
+        }
+        for (ConfigFile file : CACHE.values()) {
+            watcher.register(file);
+        }
+    }
+
+    /**
+     * Stops the hot reload watcher, if running.
+     */
+    public static synchronized void disableHotReload() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Returns true if cached config files are reloaded automatically when edited on disk.
+     */
+    public static synchronized boolean isHotReloadEnabled() {
+        return watcher != null;
+    }
+
+    /**
+     * Writes every pending write-behind save to disk. Called automatically on JVM shutdown.
+     */
+    public static void flushAll() {
+        for (ConfigFile file : CACHE.values()) {
+            file.flush();
+        }
+    }
+
+    /**
+     * Describes a config file to load ahead of time with {@link #preload(List)}.
+     */
+    public static final class Preload {
+
+        private final String subdirectory;
+        private final String fileName;
+        private final JsonSchema schema;
+        private final JsonMigrator migrator;
+        private final String targetVersion;
+        private final JsonObject defaultData;
+
+        private Preload(String subdirectory, String fileName, JsonSchema schema, JsonMigrator migrator, String targetVersion, JsonObject defaultData) {
+            this.subdirectory = subdirectory;
+            this.fileName = fileName;
+            this.schema = schema;
+            this.migrator = migrator;
+            this.targetVersion = targetVersion;
+            this.defaultData = defaultData;
+        }
+
+        /**
+         * A plain config file, equivalent to {@link JaumlConfig#open(String, String)}.
+         */
+        public static Preload of(String subdirectory, String fileName) {
+            return new Preload(subdirectory, fileName, null, null, null, null);
+        }
+
+        /**
+         * A config file with a schema and defaults, equivalent to {@link JaumlConfig#open(String, String, JsonSchema, JsonObject)}.
+         */
+        public static Preload of(String subdirectory, String fileName, JsonSchema schema, JsonObject defaultData) {
+            return new Preload(subdirectory, fileName, schema, null, null, defaultData);
+        }
+
+        /**
+         * A fully configured config file, equivalent to
+         * {@link JaumlConfig#open(String, String, JsonSchema, JsonMigrator, String, JsonObject)}.
+         */
+        public static Preload of(String subdirectory, String fileName, JsonSchema schema, JsonMigrator migrator, String targetVersion, JsonObject defaultData) {
+            return new Preload(subdirectory, fileName, schema, migrator, targetVersion, defaultData);
+        }
+
+        private boolean isConfigured() {
+            return schema != null || migrator != null || targetVersion != null || defaultData != null;
+        }
+
+        private ConfigFile open() {
+            return isConfigured()
+                    ? JaumlConfig.open(subdirectory, fileName, schema, migrator, targetVersion, defaultData)
+                    : JaumlConfig.open(subdirectory, fileName);
+        }
+
+        @Override
+        public String toString() {
+            return subdirectory + "/" + fileName;
+        }
+    }
+
+    /**
+     * Loads, migrates and validates the given config files in parallel on a bounded thread pool and
+     * caches them, so that later {@code open(...)} calls for the same files are cache hits.
+     * Blocks until every file has been processed. Files that fail to load are logged and skipped.
+     * The pool has one thread per available processor, at most 8, and is shut down before returning;
+     * on a single-core machine this degrades to loading the files one after another.
+     *
+     * @return the loaded config files, in the order they were requested
+     */
+    public static List<ConfigFile> preload(List<Preload> files) {
+        if (files == null || files.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int threads = Math.min(files.size(), Math.min(Runtime.getRuntime().availableProcessors(), MAX_PRELOAD_THREADS));
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Jauml-Preload-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<ConfigFile>> futures = new ArrayList<>(files.size());
+            for (Preload file : files) {
+                futures.add(pool.submit(file::open));
+            }
+            List<ConfigFile> loaded = new ArrayList<>(files.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    loaded.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    LOGGER.error("Failed to preload config file " + files.get(i), e.getCause());
+                }
+            }
+            return loaded;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while preloading config files", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Preloads every {@code .json} file in a subdirectory of the config directory whose name matches the glob
+     * (e.g. {@code "*.json"} or {@code "player_*.json"}). See {@link #preload(List)}.
+     */
+    public static List<ConfigFile> preload(String subdirectory, String glob) {
+        Path directory = PathValidator.resolveDirectorySafe(PLATFORM_PROVIDER.getConfigDirectory(), subdirectory);
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        List<Preload> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob == null ? "*.json" : glob)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (Files.isRegularFile(path) && name.toLowerCase().endsWith(".json")) {
+                    files.add(Preload.of(subdirectory, name));
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to list config directory " + directory, e);
+            return Collections.emptyList();
+        }
+        return preload(files);
+    }
+
     /**
      * Gets the current platform's configuration directory.
      */
@@ -9,12 +9,26 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
-
+import com.google.gson.stream.JsonWriter;
+import tn.naizo.jauml.internal.ByteBufferReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,6 +40,9 @@ import java.util.Optional;
 public final class JsonLib {
 
     private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+    // Layout is decided by the JsonWriter's indent, so one Gson instance serves every OutputFormat
+    private static final Gson WRITER_GSON = new Gson();
+    private static final TypeAdapter<JsonElement> ELEMENT_ADAPTER = PRETTY_GSON.getAdapter(JsonElement.class);
 
     private JsonLib() {}
 
@@ -59,9 +76,21 @@ public final class JsonLib {
         if (json == null || json.trim().isEmpty()) {
             throw new JsonException("JSON content is null or empty");
         }
-        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+        return strictParse(new StringReader(json));
+    }
+
+    /**
+     * Parses JSON strictly from a character stream, without first copying it into a String.
+     * Enforces the same rules as {@link #strictParse(String)}. The reader is consumed but not closed.
+     */
+    public static JsonElement strictParse(Reader json) throws JsonException {
+        if (json == null) {
+            throw new JsonException("JSON content is null or empty");
+        }
+        try {
+            JsonReader reader = new JsonReader(json);
             reader.setLenient(false);
-            JsonElement element = PRETTY_GSON.getAdapter(JsonElement.class).read(reader);
+            JsonElement element = ELEMENT_ADAPTER.read(reader);
             if (reader.peek() != JsonToken.END_DOCUMENT) {
                 throw new JsonException("Extra content found after the end of JSON document");
             }
@@ -71,6 +100,42 @@ public final class JsonLib {
         }
     }
 
+    /**
+     * Parses UTF-8 encoded JSON strictly from a byte buffer, such as a memory-mapped file,
+     * decoding it incrementally rather than copying it into a String. The buffer's position is not modified.
+     */
+    public static JsonElement strictParse(ByteBuffer utf8) throws JsonException {
+        if (utf8 == null || !utf8.hasRemaining()) {
+            throw new JsonException("JSON content is null or empty");
+        }
+        return strictParse(new ByteBufferReader(utf8.duplicate()));
+    }
+
+    /**
+     * Serializes a JsonElement using the given output format, preserving key order.
+     */
+    public static String stringify(JsonElement element, OutputFormat format) {
+        StringWriter out = new StringWriter();
+        try {
+            write(element, out, format);
+        } catch (IOException e) {
+            // StringWriter never throws
+            throw new JsonException("Failed to serialize JSON: " + e.getMessage(), e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes a JsonElement to a character stream using the given output format, preserving key order.
+     * The writer is flushed but not closed.
+     */
+    public static void write(JsonElement element, Writer out, OutputFormat format) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.setIndent((format == null ? OutputFormat.PRETTY : format).indentString());
+        WRITER_GSON.toJson(element == null ? JsonNull.INSTANCE : element, writer);
+        writer.flush();
+    }
+
     /**
      * Serializes a JsonElement into pretty-printed, deterministic JSON string
      * with object keys sorted alphabetically.
@@ -79,7 +144,75 @@ public final class JsonLib {
         if (element == null) {
             return "null";
         }
-        return PRETTY_GSON.toJson(sortJsonKeys(element));
+        StringWriter out = new StringWriter();
+        try {
+            writeStable(element, out);
+        } catch (IOException e) {
+            // StringWriter never throws
+            throw new JsonException("Failed to serialize JSON: " + e.getMessage(), e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes exactly the text of {@link #stableStringify(JsonElement)} to a character stream. Keys are sorted
+     * while walking the original tree, so no sorted copy and no complete String are built.
+     * The writer is flushed but not closed.
+     */
+    public static void writeStable(JsonElement element, Writer out) throws IOException {
+        JsonWriter writer = PRETTY_GSON.newJsonWriter(out);
+        // Gson.toJson writes elements leniently, which allows NaN and infinite numbers
+        writer.setLenient(true);
+        writeStable(element == null ? JsonNull.INSTANCE : element, writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes a JsonElement with object keys sorted alphabetically, using the writer's own indent and settings.
+     */
+    public static void writeStable(JsonElement element, JsonWriter writer) throws IOException {
+        if (element != null && element.isJsonObject()) {
+            JsonObject obj = element.getAsJsonObject();
+            String[] keys = obj.keySet().toArray(new String[0]);
+            Arrays.sort(keys);
+            writer.beginObject();
+            for (String key : keys) {
+                writer.name(key);
+                writeStable(obj.get(key), writer);
+            }
+            writer.endObject();
+        } else if (element != null && element.isJsonArray()) {
+            writer.beginArray();
+            for (JsonElement item : element.getAsJsonArray()) {
+                writeStable(item, writer);
+            }
+            writer.endArray();
+        } else {
+            ELEMENT_ADAPTER.write(writer, element == null ? JsonNull.INSTANCE : element);
+        }
+    }
+
+    /**
+     * Writes the UTF-8 bytes of {@link #stableStringify(JsonElement)} to a stream, e.g. a
+     * {@link java.security.DigestOutputStream} to hash a tree canonically. The stream is flushed but not closed.
+     */
+    public static void writeStable(JsonElement element, OutputStream out) throws IOException {
+        writeStable(element, new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the canonical UTF-8 bytes of a tree: the same as {@code stableStringify(element)} encoded as UTF-8,
+     * so equal trees give equal bytes whatever their key order.
+     */
+    public static byte[] stableBytes(JsonElement element) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeStable(element, out);
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws
+            throw new JsonException("Failed to serialize JSON: " + e.getMessage(), e);
+        }
+        return out.toByteArray();
     }
 
     /**
@@ -139,122 +272,51 @@ public final class JsonLib {
 
     /**
      * Fetches a nested JsonElement using dot-bracket notation, e.g., "settings.theme.color" or "users[0].name".
+     * The path is compiled once and cached; see {@link JsonPath#of(String)}.
      */
     public static Optional<JsonElement> getByPath(JsonElement root, String path) {
         if (root == null || path == null || path.isEmpty()) {
             return Optional.empty();
         }
-        JsonElement current = root;
-        String[] parts = path.split("\\.");
-        for (String part : parts) {
-            if (current == null || current.isJsonNull()) {
-                return Optional.empty();
-            }
-            if (part.contains("[")) {
-                String key = part.substring(0, part.indexOf('['));
-                if (!key.isEmpty()) {
-                    if (!current.isJsonObject()) {
-                        return Optional.empty();
-                    }
-                    current = current.getAsJsonObject().get(key);
-                }
-                String arrayPart = part.substring(part.indexOf('['));
-                while (arrayPart.startsWith("[")) {
-                    if (current == null || !current.isJsonArray()) {
-                        return Optional.empty();
-                    }
-                    int endBracket = arrayPart.indexOf(']');
-                    if (endBracket == -1) {
-                        return Optional.empty();
-                    }
-                    String indexStr = arrayPart.substring(1, endBracket);
-                    try {
-                        int index = Integer.parseInt(indexStr);
-                        JsonArray arr = current.getAsJsonArray();
-                        if (index < 0 || index >= arr.size()) {
-                            return Optional.empty();
-                        }
-                        current = arr.get(index);
-                    } catch (NumberFormatException e) {
-                        return Optional.empty();
-                    }
-                    arrayPart = arrayPart.substring(endBracket + 1);
-                }
-            } else {
-                if (!current.isJsonObject()) {
-                    return Optional.empty();
-                }
-                current = current.getAsJsonObject().get(part);
-            }
+        JsonPath compiled;
+        try {
+            compiled = JsonPath.of(path);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        return getByPath(root, compiled);
+    }
+
+    /**
+     * Fetches a nested JsonElement using a compiled path.
+     */
+    public static Optional<JsonElement> getByPath(JsonElement root, JsonPath path) {
+        if (root == null || path == null) {
+            return Optional.empty();
         }
-        return current == null ? Optional.empty() : Optional.of(current);
+        return Optional.ofNullable(path.get(root));
     }
 
     /**
      * Sets a nested value on a JsonObject using a path. Creates intermediate objects if needed.
+     *
+     * @throws IllegalArgumentException if the path has a malformed array index
      */
     public static void setByPath(JsonObject root, String path, JsonElement value) {
         if (root == null || path == null || path.isEmpty()) {
             return;
         }
-        String[] parts = path.split("\\.");
-        JsonObject current = root;
-        for (int i = 0; i < parts.length - 1; i++) {
-            String part = parts[i];
-            if (part.contains("[")) {
-                String key = part.substring(0, part.indexOf('['));
-                String indexStr = part.substring(part.indexOf('[') + 1, part.indexOf(']'));
-                int index = Integer.parseInt(indexStr);
-
-                JsonArray arr;
-                if (current.has(key) && current.get(key).isJsonArray()) {
-                    arr = current.getAsJsonArray(key);
-                } else {
-                    arr = new JsonArray();
-                    current.add(key, arr);
-                }
-
-                while (arr.size() <= index) {
-                    arr.add(new JsonObject());
-                }
-
-                JsonElement item = arr.get(index);
-                if (item == null || !item.isJsonObject()) {
-                    JsonObject newObj = new JsonObject();
-                    arr.set(index, newObj);
-                    current = newObj;
-                } else {
-                    current = item.getAsJsonObject();
-                }
-            } else {
-                if (!current.has(part) || !current.get(part).isJsonObject()) {
-                    current.add(part, new JsonObject());
-                }
-                current = current.getAsJsonObject(part);
-            }
-        }
-
-        String lastPart = parts[parts.length - 1];
-        if (lastPart.contains("[")) {
-            String key = lastPart.substring(0, lastPart.indexOf('['));
-            String indexStr = lastPart.substring(lastPart.indexOf('[') + 1, lastPart.indexOf(']'));
-            int index = Integer.parseInt(indexStr);
-
-            JsonArray arr;
-            if (current.has(key) && current.get(key).isJsonArray()) {
-                arr = current.getAsJsonArray(key);
-            } else {
-                arr = new JsonArray();
-                current.add(key, arr);
-            }
+        JsonPath.of(path).set(root, value);
+    }
 
-            while (arr.size() <= index) {
-                arr.add(JsonNull.INSTANCE);
-            }
-            arr.set(index, value);
-        } else {
-            current.add(lastPart, value);
+    /**
+     * Sets a nested value on a JsonObject using a compiled path. Creates intermediate objects and arrays if needed.
+     */
+    public static void setByPath(JsonObject root, JsonPath path, JsonElement value) {
+        if (root == null || path == null) {
+            return;
         }
+        path.set(root, value);
     }
 
     /**
@@ -292,6 +354,46 @@ public final class JsonLib {
         return deepClone(original);
     }
 
+    /**
+     * Persistent counterpart of {@link #merge(JsonElement, JsonElement)}. Nothing is copied: values taken from
+     * either side are shared, and if the original already has every default key, the original is returned as is
+     * (keeping its own key order). Otherwise the filled-in keys follow the defaults' order, as in the Gson version.
+     */
+    public static PersistentJson merge(PersistentJson original, PersistentJson defaults) {
+        if (original == null || original.isNull()) {
+            return defaults == null ? PersistentJson.NULL : defaults;
+        }
+        if (defaults == null || defaults.isNull() || !original.isObject() || !defaults.isObject()) {
+            return original;
+        }
+        PersistentObject originalObj = original.asObject();
+        PersistentObject defaultsObj = defaults.asObject();
+        boolean complete = true;
+        PersistentObject updated = originalObj;
+        for (String key : defaultsObj.keys()) {
+            PersistentJson value = originalObj.get(key);
+            if (value == null) {
+                complete = false;
+                break;
+            }
+            updated = updated.with(key, merge(value, defaultsObj.get(key)));
+        }
+        if (complete) {
+            return updated;
+        }
+        PersistentObject merged = PersistentObject.EMPTY;
+        for (String key : defaultsObj.keys()) {
+            PersistentJson value = originalObj.get(key);
+            merged = merged.with(key, value != null ? merge(value, defaultsObj.get(key)) : defaultsObj.get(key));
+        }
+        for (String key : originalObj.keys()) {
+            if (!defaultsObj.has(key)) {
+                merged = merged.with(key, originalObj.get(key));
+            }
+        }
+        return merged;
+    }
+
     /**
      * Recursively normalizes the types in the config based on a defaults template.
      * Performs safe type coercion where types mismatch.
@@ -354,44 +456,256 @@ public final class JsonLib {
             if (!config.isJsonPrimitive()) {
                 return deepClone(defaults);
             }
-            JsonPrimitive configPrim = config.getAsJsonPrimitive();
-            JsonPrimitive defaultsPrim = defaults.getAsJsonPrimitive();
+            return coerce(config.getAsJsonPrimitive(), defaults.getAsJsonPrimitive());
+        }
 
-            if (defaultsPrim.isBoolean()) {
-                if (configPrim.isBoolean()) {
-                    return configPrim;
-                }
-                String s = configPrim.getAsString().toLowerCase().trim();
-                if ("true".equals(s) || "1".equals(s) || "yes".equals(s) || "on".equals(s)) {
-                    return new JsonPrimitive(true);
+        return deepClone(config);
+    }
+
+    /**
+     * Like {@link #normalize(JsonElement, JsonElement)}, but reuses the config instead of copying it. If nothing
+     * needs coercing, filling in or reordering, the config instance itself is returned. Otherwise only the objects
+     * and arrays on the way to a change are rebuilt; every other subtree is shared with the config. The result has
+     * the same content and key order as {@code normalize}. Values filled in from the defaults are
+     * copied, so the defaults never end up shared. The config is not modified, but it should not be modified later
+     * either while the result is in use.
+     */
+    public static JsonElement normalizeShared(JsonElement config, JsonElement defaults) {
+        return normalizeReusing(config, defaults, false);
+    }
+
+    /**
+     * Like {@link #normalizeShared(JsonElement, JsonElement)}, but for callers that own the config tree: objects
+     * and arrays are updated in place (keys are moved into {@code normalize}'s order if needed) and nothing is rebuilt.
+     * Returns the config, or a replacement if the config's root had to be replaced (e.g. wrong type or null).
+     */
+    public static JsonElement normalizeInPlace(JsonElement config, JsonElement defaults) {
+        return normalizeReusing(config, defaults, true);
+    }
+
+    private static JsonElement normalizeReusing(JsonElement config, JsonElement defaults, boolean inPlace) {
+        if (defaults == null || defaults.isJsonNull()) {
+            return config == null ? JsonNull.INSTANCE : config;
+        }
+        if (config == null || config.isJsonNull()) {
+            return deepClone(defaults);
+        }
+        if (defaults.isJsonObject()) {
+            if (!config.isJsonObject()) {
+                return deepClone(defaults);
+            }
+            return reuseObject(config.getAsJsonObject(), defaults.getAsJsonObject(), inPlace, true);
+        }
+        if (defaults.isJsonArray()) {
+            if (!config.isJsonArray()) {
+                return deepClone(defaults);
+            }
+            JsonArray configArr = config.getAsJsonArray();
+            JsonArray defaultsArr = defaults.getAsJsonArray();
+            if (defaultsArr.size() == 0) {
+                return configArr;
+            }
+            JsonElement template = defaultsArr.get(0);
+            JsonArray normalized = null;
+            for (int i = 0; i < configArr.size(); i++) {
+                JsonElement current = configArr.get(i);
+                JsonElement value = normalizeReusing(current, template, inPlace);
+                if (value != current) {
+                    if (inPlace) {
+                        configArr.set(i, value);
+                    } else if (normalized == null) {
+                        normalized = new JsonArray(configArr.size());
+                        for (int j = 0; j < i; j++) {
+                            normalized.add(configArr.get(j));
+                        }
+                    }
                 }
-                if ("false".equals(s) || "0".equals(s) || "no".equals(s) || "off".equals(s)) {
-                    return new JsonPrimitive(false);
+                if (normalized != null) {
+                    normalized.add(value);
                 }
+            }
+            return normalized == null ? configArr : normalized;
+        }
+        if (defaults.isJsonPrimitive()) {
+            if (!config.isJsonPrimitive()) {
                 return deepClone(defaults);
             }
+            return coerce(config.getAsJsonPrimitive(), defaults.getAsJsonPrimitive());
+        }
+        return config;
+    }
 
-            if (defaultsPrim.isNumber()) {
-                if (configPrim.isNumber()) {
-                    return configPrim;
-                }
-                try {
-                    double val = Double.parseDouble(configPrim.getAsString().trim());
-                    return new JsonPrimitive(val);
-                } catch (NumberFormatException e) {
-                    return deepClone(defaults);
+    /**
+     * Like {@link #merge(JsonElement, JsonElement)}, but reuses the original instead of copying it. If the original
+     * already has every default key at every level, in the defaults' order, the original instance itself is returned.
+     * Otherwise only the objects on the way to a change are rebuilt; every other subtree is shared with the original.
+     * Values filled in from the defaults are copied. The result has the same content and key order as {@code merge}.
+     */
+    public static JsonElement mergeShared(JsonElement original, JsonElement defaults) {
+        return mergeReusing(original, defaults, false);
+    }
+
+    /**
+     * Like {@link #mergeShared(JsonElement, JsonElement)}, but for callers that own the original tree: missing keys
+     * are copied from the defaults into the original's objects in place, in {@code merge}'s key order. Returns the original, or a copy
+     * of the defaults if the original is null.
+     */
+    public static JsonElement mergeInPlace(JsonElement original, JsonElement defaults) {
+        return mergeReusing(original, defaults, true);
+    }
+
+    private static JsonElement mergeReusing(JsonElement original, JsonElement defaults, boolean inPlace) {
+        if (original == null || original.isJsonNull()) {
+            return deepClone(defaults);
+        }
+        if (defaults == null || !original.isJsonObject() || !defaults.isJsonObject()) {
+            return original;
+        }
+        return reuseObject(original.getAsJsonObject(), defaults.getAsJsonObject(), inPlace, false);
+    }
+
+    /**
+     * Object step of the reusing normalize and merge: default keys first in the defaults' order, then the
+     * source's extra keys, exactly like {@link #normalize} and {@link #merge} lay them out. The source is
+     * returned as is if it already has that layout and no value changed.
+     */
+    private static JsonObject reuseObject(JsonObject source, JsonObject defaults, boolean inPlace, boolean normalizing) {
+        boolean ordered = hasDefaultOrder(source, defaults);
+        JsonObject rebuilt = ordered || inPlace ? null : new JsonObject();
+        int index = 0;
+        for (Map.Entry<String, JsonElement> entry : defaults.entrySet()) {
+            String key = entry.getKey();
+            JsonElement current = source.get(key);
+            JsonElement value = current == null ? deepClone(entry.getValue())
+                    : normalizing ? normalizeReusing(current, entry.getValue(), inPlace)
+                    : mergeReusing(current, entry.getValue(), inPlace);
+            if (value != current) {
+                if (inPlace) {
+                    source.add(key, value);
+                } else if (rebuilt == null) {
+                    rebuilt = leadingKeys(source, defaults, index);
                 }
             }
+            if (rebuilt != null) {
+                rebuilt.add(key, value);
+            }
+            index++;
+        }
+        if (rebuilt != null) {
+            addExtraKeys(rebuilt, source, defaults);
+            return rebuilt;
+        }
+        if (inPlace && !ordered) {
+            reorder(source, defaults);
+        }
+        return source;
+    }
 
-            if (defaultsPrim.isString()) {
-                if (configPrim.isString()) {
-                    return configPrim;
-                }
-                return new JsonPrimitive(configPrim.getAsString());
+    /**
+     * Returns true if the object's keys start with every default key, in the defaults' order.
+     */
+    private static boolean hasDefaultOrder(JsonObject object, JsonObject defaults) {
+        Iterator<String> keys = object.keySet().iterator();
+        for (String key : defaults.keySet()) {
+            if (!keys.hasNext() || !keys.next().equals(key)) {
+                return false;
             }
         }
+        return true;
+    }
 
-        return deepClone(config);
+    /**
+     * Moves the default keys (all present) to the front in the defaults' order, followed by the extra keys.
+     */
+    private static void reorder(JsonObject object, JsonObject defaults) {
+        List<String> extras = new ArrayList<>();
+        for (String key : object.keySet()) {
+            if (!defaults.has(key)) {
+                extras.add(key);
+            }
+        }
+        for (String key : defaults.keySet()) {
+            object.add(key, object.remove(key));
+        }
+        for (String key : extras) {
+            object.add(key, object.remove(key));
+        }
+    }
+
+    /**
+     * Starts a rebuilt object with the first {@code count} default keys, which were unchanged in the source.
+     */
+    private static JsonObject leadingKeys(JsonObject source, JsonObject defaults, int count) {
+        JsonObject rebuilt = new JsonObject();
+        for (String key : defaults.keySet()) {
+            if (count-- == 0) {
+                break;
+            }
+            rebuilt.add(key, source.get(key));
+        }
+        return rebuilt;
+    }
+
+    private static void addExtraKeys(JsonObject rebuilt, JsonObject source, JsonObject defaults) {
+        for (Map.Entry<String, JsonElement> entry : source.entrySet()) {
+            if (!defaults.has(entry.getKey())) {
+                rebuilt.add(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Coerces a primitive to the type of its default, returning it unchanged if it already has that type.
+     */
+    private static JsonElement coerce(JsonPrimitive configPrim, JsonPrimitive defaultsPrim) {
+        if (defaultsPrim.isBoolean()) {
+            if (configPrim.isBoolean()) {
+                return configPrim;
+            }
+            String s = configPrim.getAsString().toLowerCase().trim();
+            if ("true".equals(s) || "1".equals(s) || "yes".equals(s) || "on".equals(s)) {
+                return new JsonPrimitive(true);
+            }
+            if ("false".equals(s) || "0".equals(s) || "no".equals(s) || "off".equals(s)) {
+                return new JsonPrimitive(false);
+            }
+            return defaultsPrim;
+        }
+        if (defaultsPrim.isNumber()) {
+            if (configPrim.isNumber()) {
+                return configPrim;
+            }
+            try {
+                double val = Double.parseDouble(configPrim.getAsString().trim());
+                return new JsonPrimitive(val);
+            } catch (NumberFormatException e) {
+                return defaultsPrim;
+            }
+        }
+        if (configPrim.isString()) {
+            return configPrim;
+        }
+        return new JsonPrimitive(configPrim.getAsString());
+    }
+
+    /**
+     * Computes an RFC 6902 JSON Patch that turns {@code source} into {@code target}. Identical subtrees are
+     * skipped without being walked, and arrays are aligned on their common ends and on elements that occur once
+     * on each side, so inserting or removing a few elements of a long array produces a few operations rather than
+     * one per shifted element. Null inputs are treated as JSON null.
+     */
+    public static JsonArray diff(JsonElement source, JsonElement target) {
+        return JsonPatch.diff(source, target);
+    }
+
+    /**
+     * Applies an RFC 6902 JSON Patch (add, remove, replace, move, copy and test) and returns the patched tree.
+     * The root is not modified; the patch is applied to a copy.
+     *
+     * @throws JsonException if an operation is malformed, its path does not exist, or a test fails
+     */
+    public static JsonElement applyPatch(JsonElement root, JsonArray patch) throws JsonException {
+        return JsonPatch.apply(root == null ? JsonNull.INSTANCE : root, patch);
     }
 
     /**
@@ -70,6 +70,20 @@ public final class JsonMigrator {
         return current;
     }
 
+    /**
+     * Returns every registered migration step as {@code "from->to"}, sorted.
+     */
+    List<String> steps() {
+        List<String> steps = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Function<JsonObject, JsonObject>>> entry : migrations.entrySet()) {
+            for (String to : entry.getValue().keySet()) {
+                steps.add(entry.getKey() + "->" + to);
+            }
+        }
+        Collections.sort(steps);
+        return steps;
+    }
+
     private List<String> findPath(String start, String target) {
         Queue<List<String>> queue = new LinkedList<>();
         queue.add(Collections.singletonList(start));
@@ -0,0 +1,346 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RFC 6902 JSON Patch generation and application, behind {@link JsonLib#diff} and {@link JsonLib#applyPatch}.
+ */
+final class JsonPatch {
+
+    private JsonPatch() {}
+
+    // ==================== DIFF ====================
+
+    static JsonArray diff(JsonElement source, JsonElement target) {
+        JsonArray ops = new JsonArray();
+        diff(orNull(source), orNull(target), "", ops);
+        return ops;
+    }
+
+    private static void diff(JsonElement a, JsonElement b, String path, JsonArray ops) {
+        if (a == b) {
+            return;
+        }
+        if (a.isJsonObject() && b.isJsonObject()) {
+            diffObjects(a.getAsJsonObject(), b.getAsJsonObject(), path, ops);
+        } else if (a.isJsonArray() && b.isJsonArray()) {
+            diffArrays(a.getAsJsonArray(), b.getAsJsonArray(), path, ops);
+        } else if (!a.equals(b)) {
+            ops.add(op("replace", path, b));
+        }
+    }
+
+    private static void diffObjects(JsonObject a, JsonObject b, String path, JsonArray ops) {
+        for (Map.Entry<String, JsonElement> entry : a.entrySet()) {
+            JsonElement other = b.get(entry.getKey());
+            String child = path + "/" + escape(entry.getKey());
+            if (other == null) {
+                ops.add(op("remove", child, null));
+            } else {
+                diff(entry.getValue(), other, child, ops);
+            }
+        }
+        for (Map.Entry<String, JsonElement> entry : b.entrySet()) {
+            if (!a.has(entry.getKey())) {
+                ops.add(op("add", path + "/" + escape(entry.getKey()), entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Trims the common prefix and suffix, then aligns the rest on elements that occur exactly once on each side
+     * (found by hash), keeping the longest run of them that is in the same order on both sides. The elements
+     * between two such anchors are diffed pairwise, with the surplus removed or added.
+     */
+    private static void diffArrays(JsonArray a, JsonArray b, String path, JsonArray ops) {
+        int start = 0;
+        int endA = a.size();
+        int endB = b.size();
+        while (start < endA && start < endB && same(a.get(start), b.get(start))) {
+            start++;
+        }
+        while (endA > start && endB > start && same(a.get(endA - 1), b.get(endB - 1))) {
+            endA--;
+            endB--;
+        }
+        int[][] anchors = anchors(a, start, endA, b, start, endB);
+        int pos = start;
+        int ia = start;
+        int ib = start;
+        for (int k = 0; k <= anchors.length; k++) {
+            int nextA = k < anchors.length ? anchors[k][0] : endA;
+            int nextB = k < anchors.length ? anchors[k][1] : endB;
+            int removed = nextA - ia;
+            int added = nextB - ib;
+            int paired = Math.min(removed, added);
+            for (int t = 0; t < paired; t++) {
+                diff(a.get(ia + t), b.get(ib + t), path + "/" + pos, ops);
+                pos++;
+            }
+            for (int t = paired; t < removed; t++) {
+                ops.add(op("remove", path + "/" + pos, null));
+            }
+            for (int t = paired; t < added; t++) {
+                ops.add(op("add", path + "/" + pos, b.get(ib + t)));
+                pos++;
+            }
+            // Step over the anchor itself, which is equal on both sides
+            ia = nextA + 1;
+            ib = nextB + 1;
+            pos++;
+        }
+    }
+
+    /**
+     * Returns pairs of (index in a, index in b) of equal elements unique on both sides, increasing in both.
+     */
+    private static int[][] anchors(JsonArray a, int startA, int endA, JsonArray b, int startB, int endB) {
+        if (startA == endA || startB == endB) {
+            return new int[0][];
+        }
+        // hash -> index of its only occurrence, or -1 if it occurs more than once
+        Map<Integer, Integer> uniqueA = uniqueByHash(a, startA, endA);
+        Map<Integer, Integer> uniqueB = uniqueByHash(b, startB, endB);
+        List<int[]> candidates = new ArrayList<>();
+        for (int j = startB; j < endB; j++) {
+            Integer i = uniqueA.get(b.get(j).hashCode());
+            if (i != null && i >= 0 && uniqueB.get(b.get(j).hashCode()) == j && a.get(i).equals(b.get(j))) {
+                candidates.add(new int[] {i, j});
+            }
+        }
+        return longestIncreasing(candidates);
+    }
+
+    private static Map<Integer, Integer> uniqueByHash(JsonArray array, int start, int end) {
+        Map<Integer, Integer> unique = new HashMap<>();
+        for (int i = start; i < end; i++) {
+            unique.merge(array.get(i).hashCode(), i, (previous, current) -> -1);
+        }
+        return unique;
+    }
+
+    /**
+     * Longest subsequence of candidates (already increasing in b) that is also increasing in a, by patience sorting.
+     */
+    private static int[][] longestIncreasing(List<int[]> candidates) {
+        int n = candidates.size();
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+        for (int k = 0; k < n; k++) {
+            int value = candidates.get(k)[0];
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (candidates.get(tails[mid])[0] < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            previous[k] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = k;
+            if (lo == length) {
+                length++;
+            }
+        }
+        int[][] result = new int[length][];
+        for (int k = length > 0 ? tails[length - 1] : -1, r = length - 1; k >= 0; k = previous[k], r--) {
+            result[r] = candidates.get(k);
+        }
+        return result;
+    }
+
+    private static boolean same(JsonElement a, JsonElement b) {
+        return a == b || a.equals(b);
+    }
+
+    private static JsonObject op(String op, String path, JsonElement value) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", op);
+        record.addProperty("path", path);
+        if (value != null) {
+            record.add("value", JsonLib.deepClone(value));
+        }
+        return record;
+    }
+
+    private static String escape(String token) {
+        return token.replace("~", "~0").replace("/", "~1");
+    }
+
+    // ==================== APPLY ====================
+
+    static JsonElement apply(JsonElement root, JsonArray patch) {
+        JsonElement document = JsonLib.deepClone(root);
+        for (JsonElement element : patch) {
+            if (!element.isJsonObject()) {
+                throw new JsonException("Patch operation is not an object: " + element);
+            }
+            JsonObject operation = element.getAsJsonObject();
+            String op = text(operation, "op");
+            String path = text(operation, "path");
+            switch (op) {
+                case "add":
+                    document = add(document, path, JsonLib.deepClone(member(operation, "value")));
+                    break;
+                case "remove":
+                    document = remove(document, path);
+                    break;
+                case "replace":
+                    get(document, path);
+                    document = add(remove(document, path), path, JsonLib.deepClone(member(operation, "value")));
+                    break;
+                case "move": {
+                    String from = text(operation, "from");
+                    if (path.startsWith(from + "/")) {
+                        throw new JsonException("Cannot move " + from + " into its own child " + path);
+                    }
+                    JsonElement value = get(document, from);
+                    document = add(remove(document, from), path, value);
+                    break;
+                }
+                case "copy":
+                    document = add(document, path, JsonLib.deepClone(get(document, text(operation, "from"))));
+                    break;
+                case "test":
+                    if (!get(document, path).equals(member(operation, "value"))) {
+                        throw new JsonException("Patch test failed at " + path);
+                    }
+                    break;
+                default:
+                    throw new JsonException("Unknown patch operation: " + op);
+            }
+        }
+        return document;
+    }
+
+    private static JsonElement member(JsonObject operation, String name) {
+        JsonElement value = operation.get(name);
+        if (value == null) {
+            throw new JsonException("Patch operation is missing '" + name + "': " + operation);
+        }
+        return value;
+    }
+
+    private static String text(JsonObject operation, String name) {
+        JsonElement value = member(operation, name);
+        if (!value.isJsonPrimitive() || !value.getAsJsonPrimitive().isString()) {
+            throw new JsonException("Patch operation '" + name + "' is not a string: " + operation);
+        }
+        return value.getAsString();
+    }
+
+    private static JsonElement get(JsonElement document, String pointer) {
+        JsonElement current = document;
+        for (String token : tokens(pointer)) {
+            if (current.isJsonObject()) {
+                current = current.getAsJsonObject().get(token);
+            } else if (current.isJsonArray()) {
+                JsonArray array = current.getAsJsonArray();
+                int index = index(token, array.size() - 1, pointer);
+                current = array.get(index);
+            } else {
+                current = null;
+            }
+            if (current == null) {
+                throw new JsonException("Patch path does not exist: " + pointer);
+            }
+        }
+        return current;
+    }
+
+    private static JsonElement add(JsonElement document, String pointer, JsonElement value) {
+        List<String> tokens = tokens(pointer);
+        if (tokens.isEmpty()) {
+            return value;
+        }
+        JsonElement parent = get(document, parentOf(pointer, tokens));
+        String last = tokens.get(tokens.size() - 1);
+        if (parent.isJsonObject()) {
+            parent.getAsJsonObject().add(last, value);
+        } else if (parent.isJsonArray()) {
+            JsonArray array = parent.getAsJsonArray();
+            int index = "-".equals(last) ? array.size() : index(last, array.size(), pointer);
+            // JsonArray has no insert, so shift the tail up by one
+            array.add(JsonNull.INSTANCE);
+            for (int i = array.size() - 1; i > index; i--) {
+                array.set(i, array.get(i - 1));
+            }
+            array.set(index, value);
+        } else {
+            throw new JsonException("Patch path parent is not a container: " + pointer);
+        }
+        return document;
+    }
+
+    private static JsonElement remove(JsonElement document, String pointer) {
+        List<String> tokens = tokens(pointer);
+        if (tokens.isEmpty()) {
+            return JsonNull.INSTANCE;
+        }
+        JsonElement parent = get(document, parentOf(pointer, tokens));
+        String last = tokens.get(tokens.size() - 1);
+        if (parent.isJsonObject()) {
+            if (parent.getAsJsonObject().remove(last) == null) {
+                throw new JsonException("Patch path does not exist: " + pointer);
+            }
+        } else if (parent.isJsonArray()) {
+            JsonArray array = parent.getAsJsonArray();
+            array.remove(index(last, array.size() - 1, pointer));
+        } else {
+            throw new JsonException("Patch path does not exist: " + pointer);
+        }
+        return document;
+    }
+
+    private static List<String> tokens(String pointer) {
+        if (pointer.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (pointer.charAt(0) != '/') {
+            throw new JsonException("Invalid JSON pointer: " + pointer);
+        }
+        List<String> tokens = new ArrayList<>(Arrays.asList(pointer.substring(1).split("/", -1)));
+        for (int i = 0; i < tokens.size(); i++) {
+            tokens.set(i, tokens.get(i).replace("~1", "/").replace("~0", "~"));
+        }
+        return tokens;
+    }
+
+    private static String parentOf(String pointer, List<String> tokens) {
+        return tokens.size() == 1 ? "" : pointer.substring(0, pointer.lastIndexOf('/'));
+    }
+
+    private static int index(String token, int max, String pointer) {
+        // RFC 6901 allows only "0" or digits without a leading zero, so reject the signs parseInt would accept
+        if (token.isEmpty() || (token.length() > 1 && token.charAt(0) == '0')
+                || !token.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            throw new JsonException("Invalid array index in patch path: " + pointer);
+        }
+        int index;
+        try {
+            index = Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new JsonException("Invalid array index in patch path: " + pointer);
+        }
+        if (index < 0 || index > max) {
+            throw new JsonException("Array index out of range in patch path: " + pointer);
+        }
+        return index;
+    }
+
+    private static JsonElement orNull(JsonElement element) {
+        return element == null ? JsonNull.INSTANCE : element;
+    }
+}
@@ -0,0 +1,253 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A pre-parsed path in dot-bracket notation, e.g. {@code settings.theme[2].color}.
+ * Parsing happens once in {@link #compile(String)}; {@link #get(JsonElement)} then walks the tree without allocating.
+ * Paths are immutable and thread-safe.
+ */
+public final class JsonPath {
+
+    private static final int MAX_INTERNED = 4096;
+    private static final Map<String, JsonPath> INTERNED = new ConcurrentHashMap<>();
+
+    private final String text;
+    // One entry per step: an object key, or null for an array step that uses the index at the same position
+    private final String[] keys;
+    private final int[] indexes;
+
+    private JsonPath(String text, String[] keys, int[] indexes) {
+        this.text = text;
+        this.keys = keys;
+        this.indexes = indexes;
+    }
+
+    /**
+     * Parses a path. Segments are separated by dots, and each may be followed by array indexes in brackets.
+     *
+     * @throws IllegalArgumentException if the path is empty or has a malformed index
+     */
+    public static JsonPath compile(String path) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("Empty JSON path");
+        }
+        List<String> keys = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        int end = path.length();
+        // Trailing empty segments are ignored, like String.split
+        while (end > 0 && path.charAt(end - 1) == '.') {
+            end--;
+        }
+        int pos = 0;
+        while (pos < end) {
+            int segmentEnd = path.indexOf('.', pos);
+            if (segmentEnd < 0 || segmentEnd > end) {
+                segmentEnd = end;
+            }
+            int bracket = path.indexOf('[', pos);
+            if (bracket < 0 || bracket > segmentEnd) {
+                keys.add(path.substring(pos, segmentEnd));
+                indexes.add(-1);
+            } else {
+                if (bracket > pos) {
+                    keys.add(path.substring(pos, bracket));
+                    indexes.add(-1);
+                }
+                int i = bracket;
+                while (i < segmentEnd) {
+                    int close = path.indexOf(']', i);
+                    if (path.charAt(i) != '[' || close < 0 || close > segmentEnd) {
+                        throw new IllegalArgumentException("Malformed array index in JSON path: " + path);
+                    }
+                    int index;
+                    try {
+                        index = Integer.parseInt(path.substring(i + 1, close));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Malformed array index in JSON path: " + path);
+                    }
+                    if (index < 0) {
+                        throw new IllegalArgumentException("Negative array index in JSON path: " + path);
+                    }
+                    keys.add(null);
+                    indexes.add(index);
+                    i = close + 1;
+                }
+            }
+            pos = segmentEnd + 1;
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("Empty JSON path");
+        }
+        int[] indexArray = new int[indexes.size()];
+        for (int i = 0; i < indexArray.length; i++) {
+            indexArray[i] = indexes.get(i);
+        }
+        return new JsonPath(path, keys.toArray(new String[0]), indexArray);
+    }
+
+    /**
+     * Returns the compiled form of a path from a shared cache, compiling it on first use.
+     *
+     * @throws IllegalArgumentException if the path is empty or has a malformed index
+     */
+    public static JsonPath of(String path) {
+        JsonPath cached = INTERNED.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        JsonPath compiled = compile(path);
+        // Paths built from dynamic data could grow the cache without bound, so stop interning when it is full
+        if (INTERNED.size() < MAX_INTERNED) {
+            JsonPath raced = INTERNED.putIfAbsent(path, compiled);
+            if (raced != null) {
+                return raced;
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Returns the element at this path, or null if any step is missing or of the wrong type.
+     */
+    public JsonElement get(JsonElement root) {
+        JsonElement current = root;
+        for (int i = 0; i < keys.length; i++) {
+            if (current == null) {
+                return null;
+            }
+            String key = keys[i];
+            if (key != null) {
+                if (!current.isJsonObject()) {
+                    return null;
+                }
+                current = current.getAsJsonObject().get(key);
+            } else {
+                if (!current.isJsonArray()) {
+                    return null;
+                }
+                JsonArray array = current.getAsJsonArray();
+                int index = indexes[i];
+                if (index >= array.size()) {
+                    return null;
+                }
+                current = array.get(index);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Sets the element at this path, creating missing (or replacing non-container) intermediate objects and arrays.
+     * Arrays are padded up to the index with empty containers, or with nulls at the last step.
+     *
+     * @throws IllegalArgumentException if the path starts with an array index
+     */
+    public void set(JsonObject root, JsonElement value) {
+        if (keys[0] == null) {
+            throw new IllegalArgumentException("JSON path must start with a key to be set on an object: " + text);
+        }
+        JsonElement current = root;
+        int last = keys.length - 1;
+        for (int i = 0; i < last; i++) {
+            current = child(current, i);
+        }
+        if (keys[last] != null) {
+            current.getAsJsonObject().add(keys[last], value == null ? JsonNull.INSTANCE : value);
+        } else {
+            JsonArray array = current.getAsJsonArray();
+            int index = indexes[last];
+            while (array.size() <= index) {
+                array.add(JsonNull.INSTANCE);
+            }
+            array.set(index, value == null ? JsonNull.INSTANCE : value);
+        }
+    }
+
+    /**
+     * Returns the container reached by step {@code i}, creating it if it is missing or of the wrong kind.
+     */
+    private JsonElement child(JsonElement current, int i) {
+        boolean wantArray = keys[i + 1] == null;
+        String key = keys[i];
+        if (key != null) {
+            JsonObject object = current.getAsJsonObject();
+            JsonElement next = object.get(key);
+            if (!isContainer(next, wantArray)) {
+                next = wantArray ? new JsonArray() : new JsonObject();
+                object.add(key, next);
+            }
+            return next;
+        }
+        JsonArray array = current.getAsJsonArray();
+        int index = indexes[i];
+        while (array.size() <= index) {
+            array.add(wantArray ? new JsonArray() : new JsonObject());
+        }
+        JsonElement next = array.get(index);
+        if (!isContainer(next, wantArray)) {
+            next = wantArray ? new JsonArray() : new JsonObject();
+            array.set(index, next);
+        }
+        return next;
+    }
+
+    private static boolean isContainer(JsonElement element, boolean array) {
+        return element != null && (array ? element.isJsonArray() : element.isJsonObject());
+    }
+
+    /**
+     * Returns the key of the first step, i.e. the top-level key of a config file this path points into,
+     * or null if the path starts with an array index.
+     */
+    public String firstKey() {
+        return keys[0];
+    }
+
+    /**
+     * Returns the number of steps (keys and array indexes) in this path.
+     */
+    public int depth() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the key of a step, or null if the step is an array index.
+     */
+    String keyAt(int step) {
+        return keys[step];
+    }
+
+    /**
+     * Returns the array index of a step, or -1 if the step is a key.
+     */
+    int indexAt(int step) {
+        return indexes[step];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof JsonPath && text.equals(((JsonPath) o).text));
+    }
+
+    @Override
+    public int hashCode() {
+        return text.hashCode();
+    }
+
+    /**
+     * Returns the path as it was written.
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+}
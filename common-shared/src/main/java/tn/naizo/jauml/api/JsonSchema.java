@@ -38,6 +38,13 @@ public final class JsonSchema {
         }
     }
 
+    /**
+     * Returns the underlying schema definition.
+     */
+    JsonObject schemaObject() {
+        return schemaObject;
+    }
+
     /**
      * Validates the provided JsonElement against this schema.
      * Throws a JsonException if validation fails.
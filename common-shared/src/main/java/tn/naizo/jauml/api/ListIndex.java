@@ -0,0 +1,58 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hash index of the string forms of the primitive items of one config list, for O(1) membership checks.
+ * Matches the semantics of the linear scans in {@link ConfigEditor}: an item matches a value if it is a primitive
+ * whose {@code getAsString()} equals it. Items are counted, since a loaded list may contain duplicates.
+ * Must only be changed under the config's write lock.
+ */
+final class ListIndex {
+
+    // The list this index describes; an index whose list was replaced by another instance is stale
+    private JsonArray array;
+    private final Map<String, Integer> counts;
+
+    private ListIndex(JsonArray array, Map<String, Integer> counts) {
+        this.array = array;
+        this.counts = counts;
+    }
+
+    static ListIndex build(JsonArray array) {
+        Map<String, Integer> counts = new HashMap<>(Math.max(16, (int) (array.size() / 0.75f) + 1));
+        for (JsonElement item : array) {
+            if (item.isJsonPrimitive()) {
+                counts.merge(item.getAsString(), 1, Integer::sum);
+            }
+        }
+        return new ListIndex(array, counts);
+    }
+
+    boolean describes(JsonElement element) {
+        return element == array;
+    }
+
+    boolean contains(String value) {
+        return counts.containsKey(value);
+    }
+
+    void added(JsonArray newArray, String value) {
+        array = newArray;
+        counts.merge(value, 1, Integer::sum);
+    }
+
+    void removed(JsonArray newArray, String value) {
+        array = newArray;
+        counts.remove(value);
+    }
+
+    void cleared(JsonArray newArray) {
+        array = newArray;
+        counts.clear();
+    }
+}
@@ -0,0 +1,67 @@
+package tn.naizo.jauml.api;
+
+/**
+ * Controls how JSON is laid out when written by {@link ConfigFile} or {@link JsonLib}.
+ * Every format is standard JSON, so files written in one format load fine in any other.
+ */
+public final class OutputFormat {
+
+    /**
+     * Human-readable output indented with two spaces (the default).
+     */
+    public static final OutputFormat PRETTY = new OutputFormat("  ");
+
+    /**
+     * Single-line output without any whitespace, for machine-owned data files.
+     */
+    public static final OutputFormat COMPACT = new OutputFormat("");
+
+    private final String indent;
+
+    private OutputFormat(String indent) {
+        this.indent = indent;
+    }
+
+    /**
+     * Pretty-printed output indented with the given number of spaces per level.
+     * An indent of zero is equivalent to {@link #COMPACT}.
+     */
+    public static OutputFormat indent(int spaces) {
+        if (spaces < 0) {
+            throw new IllegalArgumentException("Indent cannot be negative: " + spaces);
+        }
+        if (spaces == 0) {
+            return COMPACT;
+        }
+        if (spaces == 2) {
+            return PRETTY;
+        }
+        return new OutputFormat(" ".repeat(spaces));
+    }
+
+    /**
+     * Returns true if this format writes everything on a single line.
+     */
+    public boolean isCompact() {
+        return indent.isEmpty();
+    }
+
+    String indentString() {
+        return indent;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof OutputFormat && ((OutputFormat) o).indent.equals(indent);
+    }
+
+    @Override
+    public int hashCode() {
+        return indent.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return isCompact() ? "OutputFormat[compact]" : "OutputFormat[indent=" + indent.length() + "]";
+    }
+}
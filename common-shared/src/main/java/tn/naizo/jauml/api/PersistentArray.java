@@ -0,0 +1,124 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import tn.naizo.jauml.internal.PersistentVector;
+
+import java.util.Iterator;
+
+/**
+ * Immutable JSON array backed by a 32-way vector trie. {@link #get}, {@link #with} and {@link #append}
+ * are O(log32 n) and share all untouched elements.
+ */
+public final class PersistentArray extends PersistentJson implements Iterable<PersistentJson> {
+
+    public static final PersistentArray EMPTY = new PersistentArray(PersistentVector.empty());
+
+    private final PersistentVector<PersistentJson> items;
+    private int hash;
+
+    private PersistentArray(PersistentVector<PersistentJson> items) {
+        this.items = items;
+    }
+
+    static PersistentArray from(JsonArray array) {
+        PersistentVector<PersistentJson> items = PersistentVector.empty();
+        for (JsonElement item : array) {
+            items = items.append(PersistentJson.of(item));
+        }
+        return new PersistentArray(items);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public boolean isEmpty() {
+        return items.size() == 0;
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public PersistentJson get(int index) {
+        return items.get(index);
+    }
+
+    /**
+     * Returns an array with the element at {@code index} replaced. Null is stored as JSON null.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public PersistentArray with(int index, PersistentJson value) {
+        PersistentJson stored = value == null ? NULL : value;
+        if (items.get(index) == stored) {
+            return this;
+        }
+        return new PersistentArray(items.set(index, stored));
+    }
+
+    /**
+     * Returns an array with the value added at the end. Null is stored as JSON null.
+     */
+    public PersistentArray append(PersistentJson value) {
+        return new PersistentArray(items.append(value == null ? NULL : value));
+    }
+
+    @Override
+    public Iterator<PersistentJson> iterator() {
+        return items.iterator();
+    }
+
+    @Override
+    public JsonArray toJsonElement() {
+        JsonArray array = new JsonArray(items.size());
+        for (PersistentJson item : items) {
+            array.add(item.toJsonElement());
+        }
+        return array;
+    }
+
+    @Override
+    public boolean isArray() {
+        return true;
+    }
+
+    @Override
+    public PersistentArray asArray() {
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersistentArray)) {
+            return false;
+        }
+        PersistentArray other = (PersistentArray) o;
+        if (size() != other.size() || (hash != 0 && other.hash != 0 && hash != other.hash)) {
+            return false;
+        }
+        Iterator<PersistentJson> theirs = other.items.iterator();
+        for (PersistentJson item : items) {
+            if (!item.equals(theirs.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 1;
+            for (PersistentJson item : items) {
+                h = 31 * h + item.hashCode();
+            }
+            hash = h;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,180 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Immutable JSON value with structural sharing: a {@link PersistentObject}, a {@link PersistentArray}
+ * or a primitive/null leaf. "Copying" a value is free (it is never modified), and an edit returns a new value
+ * that copies only the nodes on the path to the change, sharing everything else with the old one. Many trees
+ * derived from the same defaults therefore share the memory of every part they did not change.
+ * <p>
+ * Convert from and to Gson trees with {@link #of(JsonElement)} and {@link #toJsonElement()}.
+ * Equality is structural and agrees with Gson's; object key order does not affect it.
+ */
+public abstract class PersistentJson {
+
+    public static final PersistentJson NULL = new Leaf(JsonNull.INSTANCE);
+
+    PersistentJson() {}
+
+    /**
+     * Converts a Gson tree. The tree is copied once; later changes to it are not reflected.
+     */
+    public static PersistentJson of(JsonElement element) {
+        if (element == null || element.isJsonNull()) {
+            return NULL;
+        }
+        if (element.isJsonObject()) {
+            return PersistentObject.from(element.getAsJsonObject());
+        }
+        if (element.isJsonArray()) {
+            return PersistentArray.from(element.getAsJsonArray());
+        }
+        // Gson primitives are immutable, so they can be shared
+        return new Leaf(element.getAsJsonPrimitive());
+    }
+
+    public static PersistentJson of(String value) {
+        return value == null ? NULL : new Leaf(new JsonPrimitive(value));
+    }
+
+    public static PersistentJson of(Number value) {
+        return value == null ? NULL : new Leaf(new JsonPrimitive(value));
+    }
+
+    public static PersistentJson of(boolean value) {
+        return new Leaf(new JsonPrimitive(value));
+    }
+
+    /**
+     * Builds a new, mutable Gson tree with the same content.
+     */
+    public abstract JsonElement toJsonElement();
+
+    public boolean isObject() {
+        return false;
+    }
+
+    public boolean isArray() {
+        return false;
+    }
+
+    public boolean isPrimitive() {
+        return false;
+    }
+
+    public boolean isNull() {
+        return this == NULL;
+    }
+
+    /**
+     * @throws IllegalStateException if this is not an object
+     */
+    public PersistentObject asObject() {
+        throw new IllegalStateException("Not a JSON object: " + this);
+    }
+
+    /**
+     * @throws IllegalStateException if this is not an array
+     */
+    public PersistentArray asArray() {
+        throw new IllegalStateException("Not a JSON array: " + this);
+    }
+
+    /**
+     * @throws IllegalStateException if this is not a primitive
+     */
+    public JsonPrimitive asPrimitive() {
+        throw new IllegalStateException("Not a JSON primitive: " + this);
+    }
+
+    /**
+     * Returns the value at a path below this one, or null if any step is missing or of the wrong type.
+     */
+    public PersistentJson get(JsonPath path) {
+        PersistentJson current = this;
+        for (int step = 0; step < path.depth() && current != null; step++) {
+            String key = path.keyAt(step);
+            if (key != null) {
+                current = current.isObject() ? current.asObject().get(key) : null;
+            } else {
+                PersistentArray array = current.isArray() ? current.asArray() : null;
+                int index = path.indexAt(step);
+                current = array != null && index < array.size() ? array.get(index) : null;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns {@code current} with the value at {@code path} (from {@code step} on) replaced, creating or replacing
+     * containers like {@link JsonPath#set} does. Only the nodes along the path are copied.
+     */
+    static PersistentJson setIn(PersistentJson current, JsonPath path, int step, PersistentJson value) {
+        if (step == path.depth()) {
+            return value;
+        }
+        String key = path.keyAt(step);
+        if (key != null) {
+            PersistentObject object = current != null && current.isObject() ? current.asObject() : PersistentObject.EMPTY;
+            return object.with(key, setIn(object.get(key), path, step + 1, value));
+        }
+        PersistentArray array = current != null && current.isArray() ? current.asArray() : PersistentArray.EMPTY;
+        int index = path.indexAt(step);
+        if (index < array.size()) {
+            return array.with(index, setIn(array.get(index), path, step + 1, value));
+        }
+        boolean last = step + 1 == path.depth();
+        PersistentJson padding = last ? NULL : path.keyAt(step + 1) == null ? PersistentArray.EMPTY : PersistentObject.EMPTY;
+        while (array.size() < index) {
+            array = array.append(padding);
+        }
+        return array.append(setIn(null, path, step + 1, value));
+    }
+
+    /**
+     * Returns the compact JSON text of this value.
+     */
+    @Override
+    public String toString() {
+        return JsonLib.stringify(toJsonElement(), OutputFormat.COMPACT);
+    }
+
+    private static final class Leaf extends PersistentJson {
+        private final JsonElement value;
+
+        Leaf(JsonElement value) {
+            this.value = value;
+        }
+
+        @Override
+        public JsonElement toJsonElement() {
+            return value;
+        }
+
+        @Override
+        public boolean isPrimitive() {
+            return value.isJsonPrimitive();
+        }
+
+        @Override
+        public JsonPrimitive asPrimitive() {
+            if (!value.isJsonPrimitive()) {
+                return super.asPrimitive();
+            }
+            return value.getAsJsonPrimitive();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Leaf && value.equals(((Leaf) o).value));
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import tn.naizo.jauml.internal.PersistentHashMap;
+import tn.naizo.jauml.internal.PersistentVector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable JSON object backed by a hash array mapped trie, keeping keys in insertion order like Gson does.
+ * {@link #get}, {@link #with} and {@link #without} are O(log32 n) and share all untouched entries.
+ */
+public final class PersistentObject extends PersistentJson {
+
+    public static final PersistentObject EMPTY = new PersistentObject(PersistentHashMap.empty(), PersistentVector.empty());
+
+    private final PersistentHashMap<String, Entry> entries;
+    // Keys in insertion order; removed keys leave a null until the order is compacted
+    private final PersistentVector<String> order;
+    private int hash;
+
+    private PersistentObject(PersistentHashMap<String, Entry> entries, PersistentVector<String> order) {
+        this.entries = entries;
+        this.order = order;
+    }
+
+    static PersistentObject from(JsonObject object) {
+        PersistentObject result = EMPTY;
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+            result = result.with(entry.getKey(), PersistentJson.of(entry.getValue()));
+        }
+        return result;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.size() == 0;
+    }
+
+    public boolean has(String key) {
+        return entries.get(key) != null;
+    }
+
+    /**
+     * Returns the value of a key, or null if it is absent.
+     */
+    public PersistentJson get(String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Returns an object with the key set to the value; a new key is added at the end, an existing key keeps
+     * its position. Returns this object if the key already holds that exact instance. Null is stored as JSON null.
+     */
+    public PersistentObject with(String key, PersistentJson value) {
+        PersistentJson stored = value == null ? NULL : value;
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            if (existing.value == stored) {
+                return this;
+            }
+            return new PersistentObject(entries.put(key, new Entry(stored, existing.position)), order);
+        }
+        return new PersistentObject(entries.put(key, new Entry(stored, order.size())), order.append(key));
+    }
+
+    /**
+     * Returns an object with the value at a nested path set, creating missing objects and arrays on the way.
+     * Only the objects and arrays along the path are copied.
+     *
+     * @throws IllegalArgumentException if the path starts with an array index
+     */
+    public PersistentObject with(JsonPath path, PersistentJson value) {
+        if (path.keyAt(0) == null) {
+            throw new IllegalArgumentException("JSON path must start with a key to be set on an object: " + path);
+        }
+        return setIn(this, path, 0, value == null ? NULL : value).asObject();
+    }
+
+    /**
+     * Returns an object without the key, or this object if it is absent.
+     */
+    public PersistentObject without(String key) {
+        Entry existing = entries.get(key);
+        if (existing == null) {
+            return this;
+        }
+        PersistentHashMap<String, Entry> remaining = entries.remove(key);
+        PersistentVector<String> newOrder = order.set(existing.position, null);
+        if (newOrder.size() > 16 && newOrder.size() > 2 * remaining.size()) {
+            return compact(remaining, newOrder);
+        }
+        return new PersistentObject(remaining, newOrder);
+    }
+
+    /**
+     * Returns the keys in insertion order.
+     */
+    public List<String> keys() {
+        List<String> keys = new ArrayList<>(size());
+        for (String key : order) {
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Passes each key and value to an action, in insertion order.
+     */
+    public void forEach(BiConsumer<String, PersistentJson> action) {
+        for (String key : order) {
+            if (key != null) {
+                action.accept(key, entries.get(key).value);
+            }
+        }
+    }
+
+    @Override
+    public JsonObject toJsonElement() {
+        JsonObject object = new JsonObject();
+        forEach((key, value) -> object.add(key, value.toJsonElement()));
+        return object;
+    }
+
+    @Override
+    public boolean isObject() {
+        return true;
+    }
+
+    @Override
+    public PersistentObject asObject() {
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersistentObject)) {
+            return false;
+        }
+        PersistentObject other = (PersistentObject) o;
+        if (size() != other.size() || (hash != 0 && other.hash != 0 && hash != other.hash)) {
+            return false;
+        }
+        for (String key : order) {
+            if (key != null && !entries.get(key).value.equals(other.get(key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            // Order-independent, like Map.hashCode
+            for (String key : order) {
+                if (key != null) {
+                    h += key.hashCode() ^ entries.get(key).value.hashCode();
+                }
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    private static PersistentObject compact(PersistentHashMap<String, Entry> entries, PersistentVector<String> order) {
+        PersistentHashMap<String, Entry> renumbered = PersistentHashMap.empty();
+        PersistentVector<String> compacted = PersistentVector.empty();
+        for (String key : order) {
+            if (key != null) {
+                renumbered = renumbered.put(key, new Entry(entries.get(key).value, compacted.size()));
+                compacted = compacted.append(key);
+            }
+        }
+        return new PersistentObject(renumbered, compacted);
+    }
+
+    private static final class Entry {
+        final PersistentJson value;
+        final int position;
+
+        Entry(PersistentJson value, int position) {
+            this.value = value;
+            this.position = position;
+        }
+    }
+}
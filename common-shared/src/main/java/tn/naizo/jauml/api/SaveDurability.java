@@ -0,0 +1,29 @@
+package tn.naizo.jauml.api;
+
+/**
+ * Durability tiers for {@link ConfigFile#save()}. Every tier writes to a temporary file and
+ * atomically renames it over the target, so a crash never leaves a truncated config behind;
+ * the tiers only differ in how much is forced to stable storage before returning.
+ * <p>
+ * {@link #NONE} is the default. {@link #FILE} adds one fsync per save and {@link #FILE_AND_DIRECTORY} two,
+ * whose cost depends entirely on the storage device: negligible on a write-cached disk, but it can reach
+ * milliseconds per save on consumer drives. Combine the stronger tiers with write-behind saving for files
+ * that are saved often.
+ */
+public enum SaveDurability {
+
+    /**
+     * No fsync. Survives process crashes, but recent saves may be lost on power failure.
+     */
+    NONE,
+
+    /**
+     * Fsyncs the temporary file before the rename, so the new content is on disk once it becomes visible.
+     */
+    FILE,
+
+    /**
+     * Fsyncs the temporary file and then the parent directory, so the rename itself is also durable.
+     */
+    FILE_AND_DIRECTORY
+}
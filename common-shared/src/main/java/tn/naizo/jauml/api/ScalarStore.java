@@ -0,0 +1,83 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.util.List;
+
+/**
+ * Immutable, flat copy of the scalar values of a config root for a fixed list of slot keys.
+ * Numbers are decoded once when the store is built; reads are array loads and never allocate.
+ */
+final class ScalarStore {
+
+    static final ScalarStore EMPTY = new ScalarStore(0);
+
+    private final long[] longs;
+    private final double[] doubles;
+    // One bit per slot: holds a number / holds a boolean / the boolean value
+    private final long[] numbers;
+    private final long[] booleans;
+    private final long[] trues;
+
+    private ScalarStore(int size) {
+        this.longs = new long[size];
+        this.doubles = new double[size];
+        int words = (size + 63) >>> 6;
+        this.numbers = new long[words];
+        this.booleans = new long[words];
+        this.trues = new long[words];
+    }
+
+    /**
+     * Decodes the values of the given keys, slot {@code i} holding the value of {@code keys.get(i)}.
+     */
+    static ScalarStore build(JsonObject root, List<String> keys) {
+        ScalarStore store = new ScalarStore(keys.size());
+        for (int slot = 0; slot < keys.size(); slot++) {
+            JsonElement el = root.get(keys.get(slot));
+            if (el == null || !el.isJsonPrimitive()) {
+                continue;
+            }
+            JsonPrimitive primitive = el.getAsJsonPrimitive();
+            long bit = 1L << slot;
+            if (primitive.isNumber()) {
+                Number number = primitive.getAsNumber();
+                store.longs[slot] = number.longValue();
+                store.doubles[slot] = number.doubleValue();
+                store.numbers[slot >>> 6] |= bit;
+            } else if (primitive.isBoolean()) {
+                store.booleans[slot >>> 6] |= bit;
+                if (primitive.getAsBoolean()) {
+                    store.trues[slot >>> 6] |= bit;
+                }
+            }
+        }
+        return store;
+    }
+
+    int size() {
+        return longs.length;
+    }
+
+    boolean isNumber(int slot) {
+        return slot < longs.length && (numbers[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    boolean isBoolean(int slot) {
+        return slot < longs.length && (booleans[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    long longValue(int slot) {
+        return longs[slot];
+    }
+
+    double doubleValue(int slot) {
+        return doubles[slot];
+    }
+
+    boolean booleanValue(int slot) {
+        return (trues[slot >>> 6] & (1L << slot)) != 0;
+    }
+}
@@ -0,0 +1,183 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Typed lookups of top-level keys and nested paths on a config root, shared by {@link ConfigFile} and {@link ConfigView} so both decode values identically.
+ * Callers are responsible for making sure the root is not modified concurrently.
+ */
+final class Values {
+
+    private Values() {}
+
+    static String getString(JsonObject root, String key, String defaultValue) {
+        return asString(root.get(key), defaultValue);
+    }
+
+    static int getInt(JsonObject root, String key, int defaultValue) {
+        return asInt(root.get(key), defaultValue);
+    }
+
+    static OptionalInt getInt(JsonObject root, String key) {
+        JsonElement el = root.get(key);
+        if (isNumber(el)) {
+            return OptionalInt.of(el.getAsInt());
+        }
+        return OptionalInt.empty();
+    }
+
+    static long getLong(JsonObject root, String key, long defaultValue) {
+        return asLong(root.get(key), defaultValue);
+    }
+
+    static OptionalLong getLong(JsonObject root, String key) {
+        JsonElement el = root.get(key);
+        if (isNumber(el)) {
+            return OptionalLong.of(el.getAsLong());
+        }
+        return OptionalLong.empty();
+    }
+
+    static double getDouble(JsonObject root, String key, double defaultValue) {
+        return asDouble(root.get(key), defaultValue);
+    }
+
+    static OptionalDouble getDouble(JsonObject root, String key) {
+        JsonElement el = root.get(key);
+        if (isNumber(el)) {
+            return OptionalDouble.of(el.getAsDouble());
+        }
+        return OptionalDouble.empty();
+    }
+
+    static boolean getBoolean(JsonObject root, String key, boolean defaultValue) {
+        Boolean value = getBoolean(root, key);
+        return value != null ? value : defaultValue;
+    }
+
+    static Boolean getBoolean(JsonObject root, String key) {
+        return asBoolean(root.get(key));
+    }
+
+    static List<String> getStringList(JsonObject root, String key) {
+        JsonElement el = root.get(key);
+        if (el != null && el.isJsonArray()) {
+            JsonArray array = el.getAsJsonArray();
+            List<String> list = new ArrayList<>(array.size());
+            for (JsonElement item : array) {
+                if (item.isJsonPrimitive()) {
+                    list.add(item.getAsString());
+                } else {
+                    list.add(item.toString());
+                }
+            }
+            return list;
+        }
+        return Collections.emptyList();
+    }
+
+    static void forEachInList(JsonObject root, String key, Consumer<String> action) {
+        JsonElement el = root.get(key);
+        if (el != null && el.isJsonArray()) {
+            for (JsonElement item : el.getAsJsonArray()) {
+                action.accept(item.isJsonPrimitive() ? item.getAsString() : item.toString());
+            }
+        }
+    }
+
+    static boolean listContains(JsonObject root, String key, String value) {
+        JsonElement el = root.get(key);
+        if (el != null && el.isJsonArray()) {
+            for (JsonElement item : el.getAsJsonArray()) {
+                if (item.isJsonPrimitive() && item.getAsString().equals(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static boolean hasKey(JsonObject root, String key) {
+        return root.has(key);
+    }
+
+    static Set<String> keys(JsonObject root) {
+        return new HashSet<>(root.keySet());
+    }
+
+    static String getString(JsonObject root, JsonPath path, String defaultValue) {
+        return asString(path.get(root), defaultValue);
+    }
+
+    static int getInt(JsonObject root, JsonPath path, int defaultValue) {
+        return asInt(path.get(root), defaultValue);
+    }
+
+    static long getLong(JsonObject root, JsonPath path, long defaultValue) {
+        return asLong(path.get(root), defaultValue);
+    }
+
+    static double getDouble(JsonObject root, JsonPath path, double defaultValue) {
+        return asDouble(path.get(root), defaultValue);
+    }
+
+    static boolean getBoolean(JsonObject root, JsonPath path, boolean defaultValue) {
+        Boolean value = asBoolean(path.get(root));
+        return value != null ? value : defaultValue;
+    }
+
+    static boolean has(JsonObject root, JsonPath path) {
+        return path.get(root) != null;
+    }
+
+    private static String asString(JsonElement el, String defaultValue) {
+        if (el != null && el.isJsonPrimitive() && el.getAsJsonPrimitive().isString()) {
+            return el.getAsString();
+        }
+        return defaultValue;
+    }
+
+    private static int asInt(JsonElement el, int defaultValue) {
+        if (isNumber(el)) {
+            return el.getAsInt();
+        }
+        return defaultValue;
+    }
+
+    private static long asLong(JsonElement el, long defaultValue) {
+        if (isNumber(el)) {
+            return el.getAsLong();
+        }
+        return defaultValue;
+    }
+
+    private static double asDouble(JsonElement el, double defaultValue) {
+        if (isNumber(el)) {
+            return el.getAsDouble();
+        }
+        return defaultValue;
+    }
+
+    private static Boolean asBoolean(JsonElement el) {
+        if (el != null && el.isJsonPrimitive() && el.getAsJsonPrimitive().isBoolean()) {
+            return el.getAsBoolean();
+        }
+        return null;
+    }
+
+    private static boolean isNumber(JsonElement el) {
+        return el != null && el.isJsonPrimitive() && el.getAsJsonPrimitive().isNumber();
+    }
+}
@@ -0,0 +1,69 @@
+package tn.naizo.jauml.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public final class AtomicFileWriter {
+
+    private AtomicFileWriter() {}
+
+    /**
+     * Returns the sibling temporary path used while atomically replacing the given file.
+     */
+    public static Path tempPath(Path target) {
+        return target.resolveSibling(target.getFileName().toString() + ".tmp");
+    }
+
+    /**
+     * Writes the bytes to a temporary sibling file and atomically moves it over the target.
+     *
+     * @param target the file to replace
+     * @param bytes the full new content
+     * @param syncFile whether to fsync the temporary file before the move
+     * @param syncDirectory whether to fsync the parent directory after the move
+     */
+    public static void write(Path target, byte[] bytes, boolean syncFile, boolean syncDirectory) throws IOException {
+        Path temp = tempPath(target);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (syncFile) {
+                    channel.force(true);
+                }
+            }
+
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        if (syncDirectory) {
+            syncDirectory(target.getParent());
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms (e.g. Windows) do not allow opening or syncing directories; the rename is still atomic there.
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package tn.naizo.jauml.internal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A Reader that decodes UTF-8 directly out of a ByteBuffer (typically a memory-mapped file),
+ * without copying the bytes onto the heap first. Malformed input is replaced, like InputStreamReader.
+ */
+public final class ByteBufferReader extends Reader {
+
+    private final ByteBuffer source;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private boolean flushed;
+    // Decoding target for one-char reads, which cannot hold both halves of a surrogate pair
+    private final CharBuffer pair = CharBuffer.allocate(2);
+    // Second char of a pair decoded by a one-char read, returned by the next read
+    private char pending;
+    private boolean hasPending;
+
+    public ByteBufferReader(ByteBuffer source) {
+        this.source = source;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        int read = 0;
+        if (hasPending) {
+            buffer[offset] = pending;
+            hasPending = false;
+            read = 1;
+        }
+        if (length - read >= 2) {
+            read += decode(CharBuffer.wrap(buffer, offset + read, length - read));
+        } else if (length - read == 1) {
+            pair.clear();
+            int decoded = decode(pair);
+            if (decoded > 0) {
+                buffer[offset + read] = pair.get(0);
+                read++;
+            }
+            if (decoded == 2) {
+                pending = pair.get(1);
+                hasPending = true;
+            }
+        }
+        return read == 0 && flushed ? -1 : read;
+    }
+
+    private int decode(CharBuffer target) throws IOException {
+        if (flushed) {
+            return 0;
+        }
+        int start = target.position();
+        CoderResult result = decoder.decode(source, target, true);
+        if (result.isError()) {
+            result.throwException();
+        }
+        if (result.isUnderflow()) {
+            decoder.flush(target);
+            flushed = true;
+        }
+        return target.position() - start;
+    }
+
+    @Override
+    public void close() {
+        flushed = true;
+    }
+}
@@ -0,0 +1,270 @@
+package tn.naizo.jauml.internal;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Compact binary snapshots of fully loaded (migrated, normalized and validated) config trees.
+ * <p>
+ * A snapshot starts with a header holding the content hash of the source file and a fingerprint of the
+ * configuration it was loaded with; it is only used when both still match. Numbers are stored as their
+ * original text so that a tree loaded from a snapshot serializes exactly like one parsed from JSON.
+ */
+public final class ConfigSnapshot {
+
+    private static final int MAGIC = 0x4A534E50; // "JSNP"
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HASH_LENGTH = 32;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_TRUE = 1;
+    private static final byte TAG_FALSE = 2;
+    private static final byte TAG_NUMBER = 3;
+    private static final byte TAG_STRING = 4;
+    private static final byte TAG_ARRAY = 5;
+    private static final byte TAG_OBJECT = 6;
+
+    private ConfigSnapshot() {}
+
+    /**
+     * Reads a snapshot through a memory mapping.
+     *
+     * @return the stored tree, or null if there is no snapshot, it was written for different source content
+     *         or configuration, or it is unreadable
+     */
+    public static JsonObject read(Path snapshot, byte[] sourceHash, byte[] fingerprint) throws IOException {
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+        MappedByteBuffer buffer = MappedFiles.map(snapshot);
+        try {
+            if (buffer.remaining() < 5 + 2 * HASH_LENGTH || buffer.getInt() != MAGIC || buffer.get() != FORMAT_VERSION
+                    || !matches(buffer, sourceHash) || !matches(buffer, fingerprint)) {
+                return null;
+            }
+            JsonElement root = new Decoder(buffer).readValue();
+            return root.isJsonObject() && !buffer.hasRemaining() ? root.getAsJsonObject() : null;
+        } catch (BufferUnderflowException | IllegalStateException e) {
+            return null;
+        } finally {
+            MappedFiles.unmap(buffer);
+        }
+    }
+
+    /**
+     * Atomically writes a snapshot of the given tree.
+     */
+    public static void write(Path snapshot, byte[] sourceHash, byte[] fingerprint, JsonObject root) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        writeInt(out, MAGIC);
+        out.write(FORMAT_VERSION);
+        out.write(sourceHash);
+        out.write(fingerprint);
+        writeValue(out, root);
+        Files.createDirectories(snapshot.getParent());
+        AtomicFileWriter.write(snapshot, out.toByteArray(), false, false);
+    }
+
+    private static boolean matches(ByteBuffer buffer, byte[] expected) {
+        byte[] stored = new byte[HASH_LENGTH];
+        buffer.get(stored);
+        return Arrays.equals(stored, expected);
+    }
+
+    private static void writeValue(ByteArrayOutputStream out, JsonElement element) {
+        if (element == null || element.isJsonNull()) {
+            out.write(TAG_NULL);
+        } else if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            out.write(TAG_OBJECT);
+            writeVarint(out, object.size());
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                writeString(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            out.write(TAG_ARRAY);
+            writeVarint(out, array.size());
+            for (JsonElement item : array) {
+                writeValue(out, item);
+            }
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                out.write(primitive.getAsBoolean() ? TAG_TRUE : TAG_FALSE);
+            } else if (primitive.isNumber()) {
+                out.write(TAG_NUMBER);
+                writeString(out, primitive.getAsNumber().toString());
+            } else {
+                out.write(TAG_STRING);
+                writeString(out, primitive.getAsString());
+            }
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static final class Decoder {
+
+        private final ByteBuffer buffer;
+        private byte[] scratch = new byte[256];
+
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        JsonElement readValue() {
+            byte tag = buffer.get();
+            switch (tag) {
+                case TAG_NULL:
+                    return JsonNull.INSTANCE;
+                case TAG_TRUE:
+                    return new JsonPrimitive(Boolean.TRUE);
+                case TAG_FALSE:
+                    return new JsonPrimitive(Boolean.FALSE);
+                case TAG_NUMBER:
+                    return new JsonPrimitive(new TextNumber(readString()));
+                case TAG_STRING:
+                    return new JsonPrimitive(readString());
+                case TAG_ARRAY: {
+                    int size = readVarint();
+                    JsonArray array = new JsonArray(size);
+                    for (int i = 0; i < size; i++) {
+                        array.add(readValue());
+                    }
+                    return array;
+                }
+                case TAG_OBJECT: {
+                    int size = readVarint();
+                    JsonObject object = new JsonObject();
+                    for (int i = 0; i < size; i++) {
+                        String key = readString();
+                        object.add(key, readValue());
+                    }
+                    return object;
+                }
+                default:
+                    throw new IllegalStateException("Unknown snapshot tag " + tag);
+            }
+        }
+
+        private String readString() {
+            int length = readVarint();
+            if (length > buffer.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    if (value < 0) {
+                        throw new IllegalStateException("Negative length in snapshot");
+                    }
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Malformed varint in snapshot");
+        }
+    }
+
+    /**
+     * A number that keeps its original JSON text, so it is written back unchanged.
+     */
+    private static final class TextNumber extends Number {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+
+        TextNumber(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int intValue() {
+            try {
+                return Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                return (int) longValue();
+            }
+        }
+
+        @Override
+        public long longValue() {
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                return new BigDecimal(text).longValue();
+            }
+        }
+
+        @Override
+        public float floatValue() {
+            return Float.parseFloat(text);
+        }
+
+        @Override
+        public double doubleValue() {
+            return Double.parseDouble(text);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TextNumber && text.equals(((TextNumber) obj).text);
+        }
+
+        @Override
+        public int hashCode() {
+            return text.hashCode();
+        }
+    }
+}
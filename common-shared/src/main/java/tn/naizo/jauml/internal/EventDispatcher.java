@@ -0,0 +1,29 @@
+package tn.naizo.jauml.internal;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared single-threaded executor used by default to deliver config change events, so that slow listeners
+ * never delay the writer thread. The thread is a daemon and is only started on first use.
+ */
+public final class EventDispatcher {
+
+    private EventDispatcher() {}
+
+    private static final class Holder {
+        private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Jauml-Events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the shared event thread as an executor.
+     */
+    public static Executor executor() {
+        return Holder.EXECUTOR;
+    }
+}
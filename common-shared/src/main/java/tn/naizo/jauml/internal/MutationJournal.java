@@ -0,0 +1,137 @@
+package tn.naizo.jauml.internal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sidecar log of mutation records for a config file, one JSON record per line.
+ * <p>
+ * The first line names the SHA-256 of the main file content the records apply to, so a journal left
+ * behind after the main file was rewritten by someone else is recognized and ignored.
+ * A last line without a terminating newline is an interrupted append and is dropped.
+ * <p>
+ * During compaction the header also names the content about to be written and how many leading records it
+ * already contains ({@link #prepareCompaction}), so the journal stays valid whichever of the two main files
+ * a crash leaves behind.
+ */
+public final class MutationJournal {
+
+    private static final String HEADER_PREFIX = "#jauml-journal base=";
+    private static final String NEXT_PREFIX = "next=";
+    private static final String SKIP_PREFIX = "skip=";
+
+    private MutationJournal() {}
+
+    /**
+     * Returns the journal path for a config file: the file name with {@code .journal} appended.
+     */
+    public static Path pathFor(Path configFile) {
+        return configFile.resolveSibling(configFile.getFileName().toString() + ".journal");
+    }
+
+    /**
+     * Reads the complete records of a journal.
+     *
+     * @return the records that still apply to the main file with the given hash, or null if there is no journal
+     *         or it belongs to different main file content
+     */
+    public static List<String> read(Path journal, byte[] baseHash) throws IOException {
+        if (!Files.isRegularFile(journal)) {
+            return null;
+        }
+        String content = new String(Files.readAllBytes(journal), StandardCharsets.UTF_8);
+        int headerEnd = content.indexOf('\n');
+        if (headerEnd < 0 || !content.startsWith(HEADER_PREFIX)) {
+            return null;
+        }
+        String[] header = content.substring(HEADER_PREFIX.length(), headerEnd).split(" ");
+        String hex = ContentHash.toHex(baseHash);
+        int skip;
+        if (header[0].equals(hex)) {
+            skip = 0;
+        } else if (header.length == 3 && header[1].equals(NEXT_PREFIX + hex) && header[2].startsWith(SKIP_PREFIX)) {
+            // The compacted main file was written; its leading records are already part of it
+            try {
+                skip = Integer.parseInt(header[2].substring(SKIP_PREFIX.length()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        List<String> records = new ArrayList<>();
+        int start = headerEnd + 1;
+        int end;
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            if (end > start) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    records.add(content.substring(start, end));
+                }
+            }
+            start = end + 1;
+        }
+        return records;
+    }
+
+    /**
+     * Appends records, starting a new journal for the given base if none exists yet.
+     */
+    public static void append(Path journal, byte[] baseHash, List<String> records, boolean sync) throws IOException {
+        boolean created = !Files.exists(journal) || Files.size(journal) == 0;
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), 8192);
+            if (created) {
+                writer.write(HEADER_PREFIX + ContentHash.toHex(baseHash) + "\n");
+            }
+            for (String record : records) {
+                writer.write(record);
+                writer.write('\n');
+            }
+            writer.flush();
+            if (sync) {
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Atomically replaces the journal with one that applies to both the current main file and the compacted one
+     * about to replace it: all records apply to {@code baseHash}, and all but the first {@code compacted} records
+     * apply to {@code nextHash}. Call this before writing the compacted main file, and {@link #rewrite} after.
+     */
+    public static void prepareCompaction(Path journal, byte[] baseHash, byte[] nextHash, int compacted,
+                                         List<String> records, boolean sync) throws IOException {
+        StringBuilder content = new StringBuilder(HEADER_PREFIX).append(ContentHash.toHex(baseHash))
+                .append(' ').append(NEXT_PREFIX).append(ContentHash.toHex(nextHash))
+                .append(' ').append(SKIP_PREFIX).append(compacted).append('\n');
+        for (String record : records) {
+            content.append(record).append('\n');
+        }
+        AtomicFileWriter.write(journal, content.toString().getBytes(StandardCharsets.UTF_8), sync, false);
+    }
+
+    /**
+     * Atomically replaces the journal with a new base and the given records, or deletes it if there are none.
+     */
+    public static void rewrite(Path journal, byte[] baseHash, List<String> records, boolean sync) throws IOException {
+        if (records.isEmpty()) {
+            Files.deleteIfExists(journal);
+            return;
+        }
+        StringBuilder content = new StringBuilder(HEADER_PREFIX).append(ContentHash.toHex(baseHash)).append('\n');
+        for (String record : records) {
+            content.append(record).append('\n');
+        }
+        AtomicFileWriter.write(journal, content.toString().getBytes(StandardCharsets.UTF_8), sync, false);
+    }
+}
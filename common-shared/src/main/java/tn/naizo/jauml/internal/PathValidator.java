@@ -46,4 +46,30 @@ public final class PathValidator {
 
         return resolvedPath;
     }
+
+    /**
+     * Resolves a subdirectory relative to a base directory, ensuring it cannot escape the base directory.
+     *
+     * @param baseDir the game's config directory
+     * @param subdirectory the target subdirectory name
+     * @return the verified absolute, normalized Path
+     * @throws IllegalArgumentException if a path traversal attempt is detected
+     */
+    public static Path resolveDirectorySafe(Path baseDir, String subdirectory) {
+        if (baseDir == null) {
+            throw new IllegalArgumentException("Base directory cannot be null");
+        }
+        if (subdirectory == null || subdirectory.trim().isEmpty()) {
+            throw new IllegalArgumentException("Subdirectory cannot be null or empty");
+        }
+
+        Path absoluteBase = baseDir.toAbsolutePath().normalize();
+        Path resolvedPath = absoluteBase.resolve(subdirectory).toAbsolutePath().normalize();
+
+        if (!resolvedPath.startsWith(absoluteBase)) {
+            throw new IllegalArgumentException("Directory traversal attack detected! Attempted to access path: " + resolvedPath + " which is outside base directory: " + absoluteBase);
+        }
+
+        return resolvedPath;
+    }
 }
@@ -0,0 +1,30 @@
+package tn.naizo.jauml.internal;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared single-threaded scheduler used for deferred (write-behind) config saves.
+ * The thread is a daemon and is only started on first use.
+ */
+public final class SaveScheduler {
+
+    private SaveScheduler() {}
+
+    private static final class Holder {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Jauml-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules a task to run once on the shared writer thread after the given delay.
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return Holder.EXECUTOR.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,13 +1,27 @@
 package tn.naizo.jauml.api;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import tn.naizo.jauml.internal.ContentHash;
+import tn.naizo.jauml.internal.MutationJournal;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -98,4 +112,758 @@ public class ConfigFileTest {
         assertTrue(Files.exists(backupPath));
         assertEquals("invalid json {[[}", new String(Files.readAllBytes(backupPath)));
     }
+
+    @Test
+    public void testLoadedDefaultsKeepNormalizedKeyOrder() throws IOException {
+        JsonObject defaults = JsonLib.strictParse("{\"a\":1,\"b\":{\"x\":1,\"y\":2},\"c\":true}").getAsJsonObject();
+        String content = "{\"extra\": 0, \"c\": false, \"b\": {\"y\": 5}}";
+        Path configPath = tempDir.resolve("sub").resolve("key_order.json");
+        Files.createDirectories(configPath.getParent());
+        Files.write(configPath, content.getBytes(StandardCharsets.UTF_8));
+
+        ConfigFile config = JaumlConfig.open("sub", "key_order", null, null, null, defaults);
+        config.save();
+
+        JsonElement expected = JsonLib.normalize(JsonLib.strictParse(content), defaults);
+        assertEquals(JsonLib.stringify(expected, OutputFormat.PRETTY),
+                new String(Files.readAllBytes(configPath), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWriteBehindCoalescesSaves() throws IOException {
+        ConfigFile config = JaumlConfig.open("sub", "write_behind_config");
+        config.setWriteBehind(Duration.ofMinutes(1));
+
+        for (int i = 0; i < 50; i++) {
+            config.set("counter", i);
+            config.save();
+        }
+
+        assertTrue(config.hasPendingSave());
+        assertEquals(0, config.writeCount());
+        assertFalse(config.exists());
+
+        config.flush();
+        assertFalse(config.hasPendingSave());
+        assertEquals(1, config.writeCount());
+
+        config.setWriteBehind(Duration.ZERO);
+        config.reload();
+        assertEquals(49, config.getInt("counter", 0));
+    }
+
+    @Test
+    public void testWriteBehindBackgroundFlush() throws InterruptedException {
+        ConfigFile config = JaumlConfig.open("sub", "write_behind_background");
+        config.setWriteBehind(Duration.ofMillis(50));
+
+        for (int i = 0; i < 20; i++) {
+            config.set("value", i);
+            config.save();
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        // The write count is raised before the pending flag is cleared, so wait for both
+        while ((config.hasPendingSave() || config.writeCount() != 1) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(config.hasPendingSave());
+        assertEquals(1, config.writeCount());
+        assertTrue(config.exists());
+    }
+
+    @Test
+    public void testAtomicSaveWithEveryDurability() throws IOException {
+        for (SaveDurability durability : SaveDurability.values()) {
+            String name = "durable_" + durability.name().toLowerCase();
+            Path configPath = tempDir.resolve("sub").resolve(name + ".json");
+            Path tempPath = tempDir.resolve("sub").resolve(name + ".json.tmp");
+            Files.createDirectories(configPath.getParent());
+            // A stale temp file from a previous crash must not interfere
+            Files.write(tempPath, "garbage".getBytes());
+
+            ConfigFile config = JaumlConfig.open("sub", name);
+            config.setDurability(durability);
+            config.set("tier", durability.name());
+            config.save();
+
+            assertFalse(Files.exists(tempPath));
+            config.reload();
+            assertEquals(durability.name(), config.getString("tier"));
+        }
+    }
+
+    @Test
+    public void testUnchangedSavesAreSkipped() throws IOException {
+        ConfigFile config = JaumlConfig.open("sub", "noop_config");
+        config.set("name", "jauml");
+        config.save();
+        assertEquals(1, config.writeCount());
+
+        // Nothing changed since the last write
+        config.save();
+        assertEquals(1, config.writeCount());
+        assertEquals(1, config.skippedSaveCount());
+
+        // Rewriting the same value produces identical bytes
+        config.set("name", "jauml");
+        config.save();
+        assertEquals(1, config.writeCount());
+        assertEquals(2, config.skippedSaveCount());
+
+        // A freshly loaded file that already matches its serialized form is not rewritten
+        config.reload();
+        config.save();
+        assertEquals(1, config.writeCount());
+        assertEquals(3, config.skippedSaveCount());
+
+        // External edits on disk are still overwritten by an explicit save
+        Files.write(config.path(), "{\"name\": \"edited externally\"}".getBytes());
+        config.save();
+        assertEquals(2, config.writeCount());
+    }
+
+    @Test
+    public void testBlankConfigResetToDefaults() throws IOException {
+        Path configPath = tempDir.resolve("sub").resolve("blank_config.json");
+        Files.createDirectories(configPath.getParent());
+        Files.write(configPath, " \n\t\r\n ".getBytes());
+
+        JsonObject defaults = new JsonObject();
+        defaults.addProperty("restored", true);
+
+        ConfigFile config = JaumlConfig.open("sub", "blank_config", null, null, null, defaults);
+        assertTrue(config.getBoolean("restored"));
+        assertFalse(Files.exists(tempDir.resolve("sub").resolve("blank_config.json.bak")));
+        assertTrue(new String(Files.readAllBytes(configPath)).contains("restored"));
+    }
+
+    @Test
+    public void testLargeConfigStreamingLoad() throws IOException {
+        StringBuilder json = new StringBuilder("{\"entries\": [");
+        for (int i = 0; i < 50_000; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\"entry-").append(i).append("-\u00e9\"");
+        }
+        json.append("], \"last\": \"\u00fcnicode\"}");
+        Path configPath = tempDir.resolve("sub").resolve("large_config.json");
+        Files.createDirectories(configPath.getParent());
+        Files.write(configPath, json.toString().getBytes(StandardCharsets.UTF_8));
+
+        ConfigFile config = JaumlConfig.open("sub", "large_config");
+        assertEquals(50_000, config.getStringList("entries").size());
+        assertEquals("entry-49999-\u00e9", config.getStringList("entries").get(49_999));
+        assertEquals("\u00fcnicode", config.getString("last"));
+    }
+
+    @Test
+    public void testMappedReadMode() throws IOException {
+        StringBuilder json = new StringBuilder("{\"loot\": [");
+        for (int i = 0; i < 20_000; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            // Multi-byte characters make sure decoding across buffer boundaries is correct
+            json.append("{\"id\": ").append(i).append(", \"name\": \"\u00e9p\u00e9e-\ud83d\udde1-").append(i).append("\"}");
+        }
+        json.append("]}");
+        Path configPath = tempDir.resolve("sub").resolve("mapped_config.json");
+        Files.createDirectories(configPath.getParent());
+        Files.write(configPath, json.toString().getBytes(StandardCharsets.UTF_8));
+
+        ConfigFile config = JaumlConfig.open("sub", "mapped_config");
+        config.setMappedReadThreshold(1024);
+        config.reload();
+
+        List<String> loot = config.getStringList("loot");
+        assertEquals(20_000, loot.size());
+        assertTrue(loot.get(19_999).contains("\u00e9p\u00e9e-\ud83d\udde1-19999"));
+
+        // The mapping is released, so the file can be replaced by a save
+        config.set("extra", true);
+        config.save();
+        config.reload();
+        assertTrue(config.getBoolean("extra"));
+    }
+
+    @Test
+    public void testCompactOutputFormat() throws IOException {
+        ConfigFile config = JaumlConfig.open("sub", "compact_config");
+        config.setOutputFormat(OutputFormat.COMPACT);
+        config.set("a", 1);
+        config.set("b", "two");
+        config.save();
+
+        assertEquals("{\"a\":1,\"b\":\"two\"}", new String(Files.readAllBytes(config.path()), StandardCharsets.UTF_8));
+
+        // Switching format rewrites the file even though the data is unchanged
+        config.setOutputFormat(OutputFormat.PRETTY);
+        config.save();
+        assertEquals(2, config.writeCount());
+        assertTrue(new String(Files.readAllBytes(config.path()), StandardCharsets.UTF_8).contains("\n  \"b\": \"two\""));
+
+        config.reload();
+        assertEquals(1, config.getInt("a", 0));
+        assertEquals("two", config.getString("b"));
+
+        // Switching format does not make the untouched file look changed
+        long loads = config.loadCount();
+        config.setOutputFormat(OutputFormat.COMPACT);
+        assertFalse(config.reloadIfChanged());
+        assertEquals(loads, config.loadCount());
+    }
+
+    @Test
+    public void testReloadSkipsUnchangedFile() throws IOException {
+        Path configPath = tempDir.resolve("sub").resolve("gated_reload.json");
+        Files.createDirectories(configPath.getParent());
+        Files.write(configPath, "{\"level\": 1}".getBytes());
+
+        ConfigFile config = JaumlConfig.open("sub", "gated_reload");
+        long loads = config.loadCount();
+
+        // Unchanged file: no parse
+        assertFalse(config.reloadIfChanged());
+        assertEquals(loads, config.loadCount());
+
+        // Only the modification time changed: the content hash proves nothing changed
+        Files.setLastModifiedTime(configPath, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        assertFalse(config.reloadIfChanged());
+        assertEquals(loads, config.loadCount());
+
+        // Real external change
+        Files.write(configPath, "{\"level\": 2}".getBytes());
+        assertTrue(config.reloadIfChanged());
+        assertEquals(2, config.getInt("level", 0));
+        assertEquals(loads + 1, config.loadCount());
+
+        // Unsaved in-memory changes are still reverted by reload
+        config.set("level", 3);
+        assertTrue(config.reloadIfChanged());
+        assertEquals(2, config.getInt("level", 0));
+
+        // Saved changes are what the file holds: no parse
+        config.set("level", 4);
+        config.save();
+        loads = config.loadCount();
+        assertFalse(config.reloadIfChanged());
+        assertEquals(4, config.getInt("level", 0));
+        assertEquals(loads, config.loadCount());
+    }
+
+    @Test
+    public void testSnapshotCacheSkipsLoadStages() throws Exception {
+        Path configPath = tempDir.resolve("sub").resolve("snapshot_config.json");
+        Files.createDirectories(configPath.getParent());
+        Files.write(configPath, "{\"version\": \"1\", \"rate\": 1.50, \"big\": 12345678901234567890, \"name\": \"\u00e9t\u00e9\", \"tags\": [\"a\", null, true]}".getBytes(StandardCharsets.UTF_8));
+        Path snapshots = tempDir.resolve(".jauml-cache");
+
+        AtomicInteger migrations = new AtomicInteger();
+        JsonMigrator migrator = new JsonMigrator();
+        migrator.register("1", "2", obj -> {
+            migrations.incrementAndGet();
+            obj.addProperty("migrated", true);
+            return obj;
+        });
+        JsonObject defaults = new JsonObject();
+        defaults.addProperty("enabled", true);
+        JsonSchema schema = JsonSchema.parse("{\"type\": \"object\", \"required\": [\"rate\"]}");
+
+        // First boot: full load, snapshot written
+        ConfigFile first = new ConfigFile(configPath).setSnapshotDirectory(snapshots).configure(schema, migrator, "2", defaults);
+        assertEquals(1, migrations.get());
+        assertEquals(0, first.snapshotHitCount());
+
+        // Second boot: same content and configuration, served from the snapshot
+        ConfigFile second = new ConfigFile(configPath).setSnapshotDirectory(snapshots).configure(schema, migrator, "2", defaults.deepCopy());
+        assertEquals(1, migrations.get());
+        assertEquals(1, second.snapshotHitCount());
+        assertTrue(second.getBoolean("migrated"));
+        assertTrue(second.getBoolean("enabled"));
+        assertEquals("\u00e9t\u00e9", second.getString("name"));
+        assertEquals(first.keys(), second.keys());
+        assertEquals(1.5, second.getDouble("rate", 0), 0.0);
+        assertEquals(Arrays.asList("a", "null", "true"), second.getStringList("tags"));
+
+        // Different defaults invalidate the snapshot
+        JsonObject otherDefaults = defaults.deepCopy();
+        otherDefaults.addProperty("extra", 1);
+        ConfigFile third = new ConfigFile(configPath).setSnapshotDirectory(snapshots).configure(schema, migrator, "2", otherDefaults);
+        assertEquals(2, migrations.get());
+        assertEquals(0, third.snapshotHitCount());
+
+        // Changed file content invalidates the snapshot
+        Files.write(configPath, "{\"version\": \"1\", \"rate\": 2}".getBytes(StandardCharsets.UTF_8));
+        ConfigFile fourth = new ConfigFile(configPath).setSnapshotDirectory(snapshots).configure(schema, migrator, "2", otherDefaults);
+        assertEquals(3, migrations.get());
+        assertEquals(0, fourth.snapshotHitCount());
+        assertEquals(2, fourth.getInt("rate", 0));
+
+        // Numbers from a snapshot keep their original text when written back
+        second.setOutputFormat(OutputFormat.COMPACT);
+        second.save();
+        assertTrue(new String(Files.readAllBytes(configPath), StandardCharsets.UTF_8).contains("\"rate\":1.50,\"big\":12345678901234567890"));
+    }
+
+    @Test
+    public void testJournaledSaves() throws Exception {
+        ConfigFile config = JaumlConfig.open("sub", "journal_config");
+        config.set("mode", "survival");
+        config.addToList("whitelist", "seed");
+        config.setJournaled(true);
+        config.save();
+        Path journal = config.path().resolveSibling("journal_config.json.journal");
+        long writes = config.writeCount();
+
+        // Every save appends records; the main file is not rewritten
+        for (int i = 0; i < 100; i++) {
+            config.addToList("whitelist", "player" + i);
+            config.save();
+        }
+        config.removeFromList("whitelist", "player7");
+        config.set("mode", "creative");
+        config.set("difficulty", 3);
+        config.addToList("bans", "griefer");
+        config.clearList("bans");
+        config.removeKey("difficulty");
+        config.save();
+        assertEquals(writes, config.writeCount());
+        assertEquals(107, Files.readAllLines(journal).size());
+
+        // Unsaved changes are not journaled
+        config.addToList("whitelist", "unsaved");
+
+        // A fresh instance replays the journal on load
+        ConfigFile replayed = new ConfigFile(config.path());
+        replayed.reload();
+        assertEquals(100, replayed.getStringList("whitelist").size());
+        assertFalse(replayed.listContains("whitelist", "player7"));
+        assertFalse(replayed.listContains("whitelist", "unsaved"));
+        assertEquals("creative", replayed.getString("mode"));
+        assertFalse(replayed.hasKey("difficulty"));
+        assertTrue(replayed.getStringList("bans").isEmpty());
+
+        // Passing the record threshold compacts the journal into the main file in the background
+        for (int i = 0; i < 4100; i++) {
+            config.addToList("whitelist", "bulk" + i);
+            config.save();
+        }
+        // The journal is rewritten after the main file, so wait for both
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((config.writeCount() == writes || (Files.exists(journal) && Files.readAllLines(journal).size() >= 1000))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(writes + 1, config.writeCount());
+        assertTrue(!Files.exists(journal) || Files.readAllLines(journal).size() < 1000);
+
+        ConfigFile compacted = new ConfigFile(config.path());
+        compacted.reload();
+        assertEquals(config.getStringList("whitelist"), compacted.getStringList("whitelist"));
+
+        // A journal written against other main file content is ignored
+        config.addToList("whitelist", "late");
+        config.save();
+        assertTrue(Files.exists(journal));
+        Files.write(config.path(), "{\"mode\": \"hardcore\"}".getBytes(StandardCharsets.UTF_8));
+        ConfigFile external = new ConfigFile(config.path());
+        external.reload();
+        assertEquals("hardcore", external.getString("mode"));
+        assertFalse(external.hasKey("whitelist"));
+        assertFalse(Files.exists(journal));
+    }
+
+    @Test
+    public void testJournalSurvivesCrashDuringCompaction() throws Exception {
+        ConfigFile config = JaumlConfig.open("sub", "journal_crash");
+        config.set("mode", "survival");
+        config.setJournaled(true);
+        config.save();
+        Path journal = config.path().resolveSibling("journal_crash.json.journal");
+        byte[] oldMain = Files.readAllBytes(config.path());
+
+        config.set("a", 1);
+        config.set("b", 2);
+        config.save();
+        // Saved after the compaction snapshot that contains a and b
+        config.set("c", 3);
+        config.save();
+        List<String> records = Files.readAllLines(journal).subList(1, 4);
+
+        // Compaction prepares the journal, then would replace the main file and rewrite the journal
+        byte[] newMain = "{\"mode\": \"survival\", \"a\": 1, \"b\": 2}".getBytes(StandardCharsets.UTF_8);
+        MutationJournal.prepareCompaction(journal, ContentHash.of(oldMain), ContentHash.of(newMain), 2, records, false);
+        assertEquals(3, MutationJournal.read(journal, ContentHash.of(oldMain)).size());
+        assertEquals(Arrays.asList(records.get(2)), MutationJournal.read(journal, ContentHash.of(newMain)));
+
+        // Crash before the main file was replaced: every record replays onto the old file
+        ConfigFile beforeWrite = new ConfigFile(config.path());
+        beforeWrite.reload();
+        assertEquals(1, beforeWrite.getInt("a", 0));
+        assertEquals(3, beforeWrite.getInt("c", 0));
+
+        // Crash after the main file was replaced but before the journal was rewritten: the newer record survives
+        Files.write(config.path(), newMain);
+        ConfigFile afterWrite = new ConfigFile(config.path());
+        afterWrite.reload();
+        assertEquals(2, afterWrite.getInt("b", 0));
+        assertEquals(3, afterWrite.getInt("c", 0));
+        assertTrue(Files.exists(journal));
+
+        // Later saves append to the recovered journal
+        afterWrite.setJournaled(true);
+        afterWrite.set("d", 4);
+        afterWrite.save();
+        ConfigFile reopened = new ConfigFile(config.path());
+        reopened.reload();
+        assertEquals(3, reopened.getInt("c", 0));
+        assertEquals(4, reopened.getInt("d", 0));
+    }
+
+    @Test
+    public void testCopyOnWriteSnapshots() throws Exception {
+        ConfigFile config = JaumlConfig.open("sub", "cow_config");
+        config.set("a", 0);
+        config.set("b", 0);
+        config.addToList("players", "alice");
+        config.setCopyOnWrite(true);
+        assertTrue(config.isCopyOnWrite());
+
+        ConfigView before = config.snapshot();
+        config.set("a", 1);
+        config.addToList("players", "bob");
+        config.removeKey("b");
+
+        // A view never changes; the file sees every write
+        assertEquals(0, before.getInt("a", -1));
+        assertEquals(0, before.getInt("b", -1));
+        assertEquals(Arrays.asList("alice"), before.getStringList("players"));
+        assertEquals(1, config.getInt("a", -1));
+        assertFalse(config.hasKey("b"));
+        assertEquals(Arrays.asList("alice", "bob"), config.getStringList("players"));
+
+        // Readers racing a writer always see a consistent pair of values
+        config.set("b", 1);
+        Thread writer = new Thread(() -> {
+            for (int i = 2; i < 20_000; i++) {
+                config.set("a", i);
+                config.set("b", i);
+            }
+        });
+        AtomicInteger inconsistent = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                ConfigView view = config.snapshot();
+                int a = view.getInt("a", -1);
+                int b = view.getInt("b", -1);
+                if (a != b && a != b + 1) {
+                    inconsistent.incrementAndGet();
+                }
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+        assertEquals(0, inconsistent.get());
+        assertEquals(19_999, config.getInt("b", -1));
+
+        // Switching back to locking leaves earlier views untouched by in-place writes
+        ConfigView last = config.snapshot();
+        config.setCopyOnWrite(false);
+        config.addToList("players", "carol");
+        assertEquals(Arrays.asList("alice", "bob"), last.getStringList("players"));
+        assertEquals(Arrays.asList("alice", "bob", "carol"), config.snapshot().getStringList("players"));
+    }
+
+    @Test
+    public void testReadAndEditSessions() {
+        ConfigFile config = JaumlConfig.open("sub", "session_config");
+        config.set("name", "spawn");
+        config.addToList("allowed", "alice");
+        config.save();
+        long writes = config.writeCount();
+
+        // One commit, one save
+        config.edit(editor -> {
+            editor.set("x", 10).set("y", 64).set("z", -5);
+            editor.addToList("allowed", "bob");
+            editor.removeFromList("allowed", "alice");
+            assertEquals(10, editor.getInt("x", 0));
+            assertEquals(Arrays.asList("bob"), editor.getStringList("allowed"));
+        });
+        assertEquals(writes + 1, config.writeCount());
+        int sum = config.read(view -> view.getInt("x", 0) + view.getInt("y", 0) + view.getInt("z", 0));
+        assertEquals(69, sum);
+        assertEquals(Arrays.asList("bob"), config.getStringList("allowed"));
+
+        // A failing edit leaves everything as it was and does not save
+        RuntimeException failure = new IllegalStateException("abort");
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> config.edit(editor -> {
+            editor.set("name", "changed");
+            editor.addToList("allowed", "mallory");
+            editor.clearList("allowed");
+            throw failure;
+        }));
+        assertSame(failure, thrown);
+        assertEquals("spawn", config.getString("name"));
+        assertEquals(Arrays.asList("bob"), config.getStringList("allowed"));
+        assertEquals(writes + 1, config.writeCount());
+
+        // An edit that changes nothing does not save
+        config.edit(editor -> editor.addToList("allowed", "bob"));
+        assertEquals(writes + 1, config.writeCount());
+    }
+
+    @Test
+    public void testChangeSubscriptions() throws IOException {
+        ConfigFile config = JaumlConfig.open("sub", "events_config");
+        config.setChangeExecutor(Runnable::run);
+        config.set("name", "spawn");
+        config.edit(editor -> editor.set("x", 1));
+        config.save();
+
+        List<ConfigChange> names = new ArrayList<>();
+        List<List<ConfigChange>> batches = new ArrayList<>();
+        ConfigSubscription subscription = config.subscribe("name", names::add);
+        config.changes().subscribe(new Flow.Subscriber<List<ConfigChange>>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(List<ConfigChange> batch) {
+                batches.add(batch);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        // Several changes in one session arrive as one batch; unchanged values are not reported
+        config.edit(editor -> editor.set("name", "lobby").set("x", 2).set("x", 3).addToList("allowed", "alice"));
+        config.set("x", 3);
+        assertEquals(1, batches.size());
+        assertEquals(Arrays.asList(
+                new ConfigChange("name", new JsonPrimitive("spawn"), new JsonPrimitive("lobby")),
+                new ConfigChange("x", new JsonPrimitive(1), new JsonPrimitive(3)),
+                new ConfigChange("allowed", null, JsonLib.strictParse("[\"alice\"]"))), batches.get(0));
+        assertEquals(Arrays.asList(new ConfigChange("name", new JsonPrimitive("spawn"), new JsonPrimitive("lobby"))), names);
+
+        // In-place list changes still report the old list
+        config.addToList("allowed", "bob");
+        assertEquals(JsonLib.strictParse("[\"alice\"]"), batches.get(1).get(0).oldValue());
+
+        // Nested paths, through a reload of an external edit
+        List<ConfigChange> maxima = new ArrayList<>();
+        config.subscribe("limits.max", maxima::add);
+        Files.write(config.path(), "{\"name\":\"lobby\",\"limits\":{\"max\":7,\"min\":1}}".getBytes(StandardCharsets.UTF_8));
+        assertTrue(config.reloadIfChanged());
+        assertEquals(Arrays.asList(new ConfigChange("limits.max", null, new JsonPrimitive(7))), maxima);
+        List<ConfigChange> reloaded = batches.get(batches.size() - 1);
+        assertEquals(3, reloaded.size());
+
+        config.edit(editor -> editor.set("name", "end"));
+        subscription.close();
+        config.set("name", "ignored");
+        assertEquals(2, names.size());
+        assertEquals(new JsonPrimitive("end"), names.get(1).newValue());
+    }
+
+    @Test
+    public void testConfigKeys() throws IOException {
+        ConfigFile config = JaumlConfig.open("sub", "keys_config");
+        ConfigKey<Integer> maxPlayers = config.key("maxPlayers", Integer.class, 20);
+        ConfigKey<Boolean> pvp = config.key("pvp", Boolean.class, false);
+        ConfigKey<String> motd = config.key("motd", String.class, "hello");
+
+        assertEquals(20, maxPlayers.getAsInt());
+        assertEquals("hello", motd.get());
+        assertFalse(pvp.getAsBoolean());
+
+        config.set("maxPlayers", 64);
+        assertEquals(64, maxPlayers.getAsInt());
+        assertEquals(64.0, maxPlayers.getAsDouble());
+        pvp.set(true);
+        assertTrue(config.getBoolean("pvp", false));
+        assertTrue(pvp.getAsBoolean());
+
+        // Values of the wrong type read as the default
+        config.set("maxPlayers", "many");
+        assertEquals(Integer.valueOf(20), maxPlayers.get());
+        assertThrows(IllegalStateException.class, motd::getAsInt);
+        assertThrows(IllegalArgumentException.class, () -> config.key("list", List.class, null));
+
+        // Reloads invalidate cached values
+        config.save();
+        Files.write(config.path(), "{\"maxPlayers\":8,\"motd\":\"welcome\"}".getBytes(StandardCharsets.UTF_8));
+        assertTrue(config.reloadIfChanged());
+        assertEquals(8, maxPlayers.getAsInt());
+        assertEquals("welcome", motd.get());
+        assertFalse(pvp.getAsBoolean());
+    }
+
+    @Test
+    public void testScalarSlots() throws IOException {
+        ConfigFile config = JaumlConfig.open("sub", "slots_config");
+        config.set("radius", 12);
+        config.set("speed", 1.5);
+        int radius = config.slot("radius");
+        int speed = config.slot("speed");
+        int enabled = config.slot("enabled");
+        assertEquals(radius, config.slot("radius"));
+
+        assertEquals(12, config.getInt(radius, 0));
+        assertEquals(1.5, config.getDouble(speed, 0));
+        assertEquals(1, config.getInt(speed, 0));
+        assertTrue(config.getBoolean(enabled, true));
+
+        config.edit(editor -> editor.set("enabled", false).set("radius", 3_000_000_000L));
+        assertFalse(config.getBoolean(enabled, true));
+        assertEquals(3_000_000_000L, config.getLong(radius, 0));
+        config.set("radius", "far");
+        assertEquals(-1, config.getInt(radius, -1));
+
+        config.save();
+        Files.write(config.path(), "{\"radius\":40}".getBytes(StandardCharsets.UTF_8));
+        config.reload();
+        assertEquals(40, config.getInt(radius, 0));
+        assertEquals(0.25, config.getDouble(speed, 0.25));
+        assertTrue(config.getBoolean(enabled, true));
+    }
+
+    @Test
+    public void testNestedPaths() throws IOException {
+        ConfigFile config = JaumlConfig.open("sub", "nested_config");
+        JsonPath color = JsonPath.compile("settings.theme[1].color");
+        JsonPath volume = JsonPath.of("settings.volume");
+        config.set(color, "blue");
+        config.set(volume, 0.75);
+        assertEquals("blue", config.getString(color, null));
+        assertEquals(0.75, config.getDouble(volume, 0));
+        assertTrue(config.has(volume));
+        assertFalse(config.has(JsonPath.of("settings.muted")));
+        int missing = config.read(view -> view.getInt(JsonPath.of("settings.theme[1].missing"), 1));
+        assertEquals(1, missing);
+
+        // Snapshots keep seeing the old tree after nested writes in copy-on-write mode
+        config.setCopyOnWrite(true);
+        ConfigView before = config.snapshot();
+        config.edit(editor -> editor.set(volume, 1.0).set(JsonPath.of("settings.muted"), true));
+        assertEquals(0.75, before.getDouble(volume, 0));
+        assertFalse(before.has(JsonPath.of("settings.muted")));
+        assertEquals(1.0, config.getDouble(volume, 0));
+
+        // Nested changes are journaled and replayed
+        config.setJournaled(true);
+        config.set(JsonPath.of("settings.theme[0]"), "dark");
+        config.save();
+        ConfigFile reopened = new ConfigFile(config.path());
+        reopened.reload();
+        assertEquals("dark", reopened.getString(JsonPath.of("settings.theme[0]"), null));
+        assertEquals("blue", reopened.getString(color, null));
+        assertTrue(reopened.getBoolean(JsonPath.of("settings.muted"), false));
+        assertThrows(IllegalArgumentException.class, () -> config.set(JsonPath.of("[0].x"), 1));
+    }
+
+    @Test
+    public void testListIndexing() throws IOException {
+        ConfigFile config = JaumlConfig.open("sub", "indexed_config");
+        config.setListIndexing(true);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(config.addToList("banned", "player" + i));
+        }
+        assertFalse(config.addToList("banned", "player500"));
+        assertTrue(config.listContains("banned", "player999"));
+        assertFalse(config.listContains("banned", "player1000"));
+
+        assertTrue(config.removeFromList("banned", "player500"));
+        assertFalse(config.removeFromList("banned", "player500"));
+        assertFalse(config.listContains("banned", "player500"));
+        assertEquals(999, config.getStringList("banned").size());
+
+        // Edit sessions and other writers keep the index in step
+        config.edit(editor -> editor.addToList("banned", "alice"));
+        assertTrue(config.listContains("banned", "alice"));
+        config.set(JsonPath.of("banned[0]"), "bob");
+        assertTrue(config.listContains("banned", "bob"));
+        assertFalse(config.listContains("banned", "player0"));
+        config.clearList("banned");
+        assertFalse(config.listContains("banned", "bob"));
+        assertTrue(config.addToList("banned", "bob"));
+
+        // Reloads drop the index
+        config.save();
+        Files.write(config.path(), "{\"banned\":[\"carol\",1]}".getBytes(StandardCharsets.UTF_8));
+        config.reload();
+        assertTrue(config.listContains("banned", "carol"));
+        assertTrue(config.listContains("banned", "1"));
+        assertFalse(config.listContains("banned", "bob"));
+        assertFalse(config.addToList("banned", "1"));
+    }
+
+    @Test
+    public void testBulkListOperations() {
+        ConfigFile config = JaumlConfig.open("sub", "bulk_config");
+        config.setListIndexing(true);
+        config.setJournaled(true);
+        List<String> bans = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            bans.add("player" + (i % 40_000));
+        }
+        assertEquals(40_000, config.addAllToList("banned", bans));
+        assertEquals(1, config.addAllToList("banned", Arrays.asList("player1", "alice", null, "alice")));
+        assertTrue(config.listContains("banned", "alice"));
+
+        assertEquals(2, config.removeAllFromList("banned", Arrays.asList("player0", "alice", "nobody")));
+        assertFalse(config.listContains("banned", "alice"));
+        assertEquals(39_999, config.getStringList("banned").size());
+
+        assertEquals(39_997, config.retainAllInList("banned", Arrays.asList("player1", "player2", "nobody")));
+        assertEquals(Arrays.asList("player1", "player2"), config.getStringList("banned"));
+        assertEquals(0, config.retainAllInList("banned", Arrays.asList("player1", "player2")));
+
+        assertEquals(2, config.replaceList("banned", Arrays.asList("bob", "carol", "bob")));
+        assertFalse(config.listContains("banned", "player1"));
+        assertTrue(config.listContains("banned", "carol"));
+        config.save();
+
+        ConfigFile reopened = new ConfigFile(config.path());
+        reopened.reload();
+        assertEquals(Arrays.asList("bob", "carol"), reopened.getStringList("banned"));
+    }
+
+    @Test
+    public void testCachedListAndKeyViews() {
+        ConfigFile config = JaumlConfig.open("sub", "views_config");
+        config.addAllToList("players", Arrays.asList("alice", "bob"));
+        config.set("motd", "hi");
+
+        List<String> players = config.getStringList("players");
+        assertSame(players, config.getStringList("players"));
+        assertThrows(UnsupportedOperationException.class, () -> players.add("mallory"));
+        Set<String> keys = config.keys();
+        assertSame(keys, config.keys());
+        assertThrows(UnsupportedOperationException.class, () -> keys.remove("motd"));
+
+        config.addToList("players", "carol");
+        assertEquals(Arrays.asList("alice", "bob"), players);
+        assertEquals(Arrays.asList("alice", "bob", "carol"), config.getStringList("players"));
+        assertNotSame(players, config.getStringList("players"));
+        config.set("pvp", true);
+        assertEquals(new HashSet<>(Arrays.asList("players", "motd", "pvp")), config.keys());
+
+        List<String> seen = new ArrayList<>();
+        config.forEachInList("players", seen::add);
+        config.forEachInList("missing", seen::add);
+        assertEquals(Arrays.asList("alice", "bob", "carol"), seen);
+    }
 }
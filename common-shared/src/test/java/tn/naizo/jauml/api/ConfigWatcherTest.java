@@ -0,0 +1,89 @@
+package tn.naizo.jauml.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigWatcherTest {
+
+    @TempDir
+    public Path tempDir;
+
+    @BeforeEach
+    public void setUp() {
+        TestPlatformProvider.setTempDir(tempDir);
+        JaumlConfig.enableHotReload(Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        JaumlConfig.disableHotReload();
+    }
+
+    @Test
+    public void testExternalEditIsReloaded() throws IOException, InterruptedException {
+        ConfigFile config = JaumlConfig.open("watched", "external_edit");
+        config.set("motd", "hello");
+        config.save();
+        assertTrue(JaumlConfig.isHotReloadEnabled());
+
+        // Simulate an editor writing the file several times in a row
+        for (int i = 0; i < 5; i++) {
+            Files.write(config.path(), ("{\"motd\": \"edited " + i + "\"}").getBytes());
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!"edited 4".equals(config.getString("motd")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals("edited 4", config.getString("motd"));
+    }
+
+    @Test
+    public void testOwnSavesAreIgnored() throws InterruptedException {
+        ConfigFile config = JaumlConfig.open("watched", "own_save");
+        config.set("saved", 1);
+        config.save();
+
+        // An unsaved change would be lost if our own save triggered a reload
+        config.set("unsaved", 2);
+        Thread.sleep(500);
+
+        assertEquals(1, config.getInt("saved", 0));
+        assertEquals(2, config.getInt("unsaved", 0));
+    }
+
+    @Test
+    public void testExternalEditDoesNotDiscardUnsavedChanges() throws IOException, InterruptedException {
+        ConfigFile config = JaumlConfig.open("watched", "dirty_edit");
+        config.set("motd", "hello");
+        config.save();
+
+        config.set("unsaved", 2);
+        Files.write(config.path(), "{\"motd\": \"external\"}".getBytes());
+        Thread.sleep(300);
+
+        // Neither the watcher nor a direct check may revert the unsaved change
+        assertFalse(config.reloadIfModified());
+        assertEquals("hello", config.getString("motd"));
+        assertEquals(2, config.getInt("unsaved", 0));
+
+        // Once the changes are saved, later external edits are picked up again
+        config.save();
+        Files.write(config.path(), "{\"motd\": \"edited\"}".getBytes());
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!"edited".equals(config.getString("motd")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals("edited", config.getString("motd"));
+        assertEquals(0, config.getInt("unsaved", 0));
+    }
+}
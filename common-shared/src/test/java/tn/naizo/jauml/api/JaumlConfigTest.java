@@ -0,0 +1,103 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JaumlConfigTest {
+
+    @TempDir
+    public Path tempDir;
+
+    @BeforeEach
+    public void setUp() {
+        TestPlatformProvider.setTempDir(tempDir);
+    }
+
+    private void writeConfigs(String subdirectory, int count) throws IOException {
+        Path directory = tempDir.resolve(subdirectory);
+        Files.createDirectories(directory);
+        for (int i = 0; i < count; i++) {
+            Files.write(directory.resolve("file_" + i + ".json"), ("{\"index\": " + i + "}").getBytes());
+        }
+    }
+
+    @Test
+    public void testPreloadListPopulatesCache() throws IOException {
+        writeConfigs("preload", 50);
+
+        JsonObject defaults = new JsonObject();
+        defaults.addProperty("index", -1);
+        defaults.addProperty("enabled", true);
+
+        List<JaumlConfig.Preload> requests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            requests.add(JaumlConfig.Preload.of("preload", "file_" + i, null, defaults));
+        }
+        List<ConfigFile> loaded = JaumlConfig.preload(requests);
+        assertEquals(50, loaded.size());
+
+        for (int i = 0; i < 50; i++) {
+            ConfigFile file = JaumlConfig.open("preload", "file_" + i);
+            assertSame(loaded.get(i), file);
+            assertEquals(i, file.getInt("index", -1));
+            assertTrue(file.getBoolean("enabled", false));
+        }
+    }
+
+    @Test
+    public void testPreloadGlob() throws IOException {
+        writeConfigs("glob", 20);
+        Files.write(tempDir.resolve("glob").resolve("notes.txt"), "not a config".getBytes());
+
+        List<ConfigFile> loaded = JaumlConfig.preload("glob", "file_1*.json");
+        // file_1 and file_10 .. file_19
+        assertEquals(11, loaded.size());
+
+        ConfigFile file = JaumlConfig.open("glob", "file_12");
+        assertTrue(loaded.contains(file));
+        assertEquals(12, file.getInt("index", -1));
+        assertEquals(1, file.loadCount());
+
+        assertTrue(JaumlConfig.preload("missing_dir", "*.json").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> JaumlConfig.preload("../escape", "*.json"));
+    }
+
+    @Test
+    public void testOpenWithConfigurationLoadsOnce() throws Exception {
+        writeConfigs("configured", 1);
+
+        JsonObject defaults = new JsonObject();
+        defaults.addProperty("index", -1);
+        defaults.addProperty("enabled", true);
+        JsonSchema schema = JsonSchema.parse("{\"type\": \"object\", \"required\": [\"index\"]}");
+
+        ConfigFile file = JaumlConfig.open("configured", "file_0", schema, defaults);
+        assertEquals(1, file.loadCount());
+        assertTrue(file.getBoolean("enabled", false));
+
+        // Same schema instance and equal defaults: pure cache hits
+        JsonObject equalDefaults = defaults.deepCopy();
+        for (int i = 0; i < 5; i++) {
+            assertSame(file, JaumlConfig.open("configured", "file_0", schema, equalDefaults));
+        }
+        assertSame(file, JaumlConfig.open("configured", "file_0"));
+        assertEquals(1, file.loadCount());
+
+        // A different configuration is applied with exactly one more read
+        JsonObject otherDefaults = defaults.deepCopy();
+        otherDefaults.addProperty("extra", "value");
+        JaumlConfig.open("configured", "file_0", schema, otherDefaults);
+        assertEquals(2, file.loadCount());
+        assertEquals("value", file.getString("extra"));
+    }
+}
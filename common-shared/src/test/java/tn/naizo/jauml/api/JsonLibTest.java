@@ -1,12 +1,23 @@
 package tn.naizo.jauml.api;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -44,6 +55,46 @@ public class JsonLibTest {
         assertThrows(JsonException.class, () -> JsonLib.strictParse(""));
     }
 
+    @Test
+    public void testStrictParseReader() {
+        JsonElement parsed = JsonLib.strictParse(new StringReader("{\"a\": [1, 2, 3]}"));
+        assertEquals(3, parsed.getAsJsonObject().getAsJsonArray("a").size());
+
+        assertThrows(JsonException.class, () -> JsonLib.strictParse(new StringReader("{a: 1}")));
+        assertThrows(JsonException.class, () -> JsonLib.strictParse(new StringReader("{\"a\": 1} extra")));
+        assertThrows(JsonException.class, () -> JsonLib.strictParse(new StringReader("")));
+    }
+
+    @Test
+    public void testStrictParseByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("{\"name\": \"\u00e9t\u00e9\"}".getBytes(StandardCharsets.UTF_8));
+        JsonElement parsed = JsonLib.strictParse(buffer);
+        assertEquals("\u00e9t\u00e9", parsed.getAsJsonObject().get("name").getAsString());
+        assertEquals(0, buffer.position());
+
+        assertThrows(JsonException.class, () -> JsonLib.strictParse(ByteBuffer.allocate(0)));
+        assertThrows(JsonException.class, () -> JsonLib.strictParse(ByteBuffer.wrap("[1] 2".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void testStringifyOutputFormats() {
+        JsonObject obj = new JsonObject();
+        obj.addProperty("name", "a<b");
+        JsonArray arr = new JsonArray();
+        arr.add(1);
+        arr.add(2);
+        obj.add("list", arr);
+
+        assertEquals("{\"name\":\"a\\u003cb\",\"list\":[1,2]}", JsonLib.stringify(obj, OutputFormat.COMPACT));
+        assertEquals(new GsonBuilder().setPrettyPrinting().create().toJson(obj), JsonLib.stringify(obj, OutputFormat.PRETTY));
+        assertEquals("{\n    \"name\": \"a\\u003cb\",\n    \"list\": [\n        1,\n        2\n    ]\n}",
+                JsonLib.stringify(obj, OutputFormat.indent(4)));
+
+        for (OutputFormat format : new OutputFormat[]{OutputFormat.COMPACT, OutputFormat.PRETTY, OutputFormat.indent(3)}) {
+            assertEquals(obj, JsonLib.strictParse(JsonLib.stringify(obj, format)));
+        }
+    }
+
     @Test
     public void testStableStringify() {
         JsonObject obj = new JsonObject();
@@ -61,6 +112,41 @@ public class JsonLibTest {
         assertTrue(indexM < indexZ);
     }
 
+    @Test
+    public void testStreamingStableOutput() throws Exception {
+        JsonObject tree = JsonLib.strictParse(
+                "{\"z\":{\"b\":[1,2.5,{\"y\":null,\"x\":\"<a href='q'>&amp;=</a>\"}],\"a\":{}},"
+                        + "\"m\":null,\"\u00e9t\u00e9\":\"\u2603\\n\\t\\\"\",\"A\":[],\"list\":[null,[true,false]]}").getAsJsonObject();
+        tree.add("nan", new JsonPrimitive(Double.NaN));
+        Gson pretty = new GsonBuilder().setPrettyPrinting().create();
+        String expected = pretty.toJson(JsonLib.sortJsonKeys(tree));
+
+        assertEquals(expected, JsonLib.stableStringify(tree));
+        StringWriter out = new StringWriter();
+        JsonLib.writeStable(tree, out);
+        assertEquals(expected, out.toString());
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), JsonLib.stableBytes(tree));
+        for (JsonElement value : new JsonElement[] {JsonNull.INSTANCE, new JsonPrimitive("s"), new JsonArray()}) {
+            assertEquals(pretty.toJson(JsonLib.sortJsonKeys(value)), JsonLib.stableStringify(value));
+        }
+        assertEquals("null", JsonLib.stableStringify(null));
+
+        // Key order does not change the canonical bytes
+        JsonObject reordered = new JsonObject();
+        List<String> keys = new ArrayList<>(tree.keySet());
+        Collections.reverse(keys);
+        for (String key : keys) {
+            reordered.add(key, tree.get(key));
+        }
+        assertArrayEquals(JsonLib.stableBytes(tree), JsonLib.stableBytes(reordered));
+
+        StringWriter compact = new StringWriter();
+        JsonWriter writer = new JsonWriter(compact);
+        JsonLib.writeStable(JsonLib.strictParse("{\"b\":1,\"a\":[2]}"), writer);
+        writer.flush();
+        assertEquals("{\"a\":[2],\"b\":1}", compact.toString());
+    }
+
     @Test
     public void testDeepClone() {
         JsonObject original = new JsonObject();
@@ -118,6 +204,31 @@ public class JsonLibTest {
         assertEquals("bob", users.get(0).getAsJsonObject().get("name").getAsString());
     }
 
+    @Test
+    public void testCompiledPaths() {
+        JsonObject root = new JsonObject();
+        JsonPath color = JsonPath.compile("settings.theme[2].color");
+        JsonLib.setByPath(root, color, new JsonPrimitive("teal"));
+        JsonArray theme = root.getAsJsonObject("settings").getAsJsonArray("theme");
+        assertEquals(3, theme.size());
+        assertTrue(theme.get(0).isJsonObject());
+        assertEquals("teal", color.get(root).getAsString());
+        assertEquals("teal", JsonLib.getByPath(root, "settings.theme[2].color").get().getAsString());
+
+        JsonLib.setByPath(root, "grid[1][2]", new JsonPrimitive(5));
+        assertEquals("[[],[null,null,5]]", root.get("grid").toString());
+        assertEquals(5, JsonPath.compile("grid[1][2]").get(root).getAsInt());
+
+        assertSame(JsonPath.of("a.b"), JsonPath.of("a.b"));
+        assertEquals("settings", color.firstKey());
+        assertEquals(4, color.depth());
+        assertNull(JsonPath.compile("settings.theme[7].color").get(root));
+        assertNull(JsonPath.compile("settings.theme.color").get(root));
+        assertFalse(JsonLib.getByPath(root, "settings.theme[x]").isPresent());
+        assertThrows(IllegalArgumentException.class, () -> JsonPath.compile("a[1"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPath.compile(""));
+    }
+
     @Test
     public void testMerge() {
         JsonObject user = new JsonObject();
@@ -159,6 +270,116 @@ public class JsonLibTest {
         // or coerces structure. Defaults are populated, mismatches are coerced/reset)
     }
 
+    @Test
+    public void testDiffAndPatch() {
+        JsonElement source = JsonLib.strictParse(
+                "{\"name\":\"a\",\"drop\":1,\"odd/key~\":{\"x\":[1,2,3]},\"list\":[\"a\",\"b\",\"c\",\"d\"]}");
+        JsonElement target = JsonLib.strictParse(
+                "{\"name\":\"b\",\"odd/key~\":{\"x\":[1,3]},\"list\":[\"a\",\"x\",\"c\",\"d\",\"e\"],\"new\":{\"y\":null}}");
+        JsonArray patch = JsonLib.diff(source, target);
+        assertEquals(target, JsonLib.applyPatch(source, patch));
+        assertTrue(patch.toString().contains("\"/odd~1key~0/x/1\""));
+        assertEquals(0, JsonLib.diff(source, source.deepCopy()).size());
+        assertEquals(JsonLib.strictParse("[{\"op\":\"replace\",\"path\":\"\",\"value\":[1]}]"), JsonLib.diff(source, JsonLib.strictParse("[1]")));
+
+        // Inserting and removing in a long array only touches the changed positions
+        JsonArray big = new JsonArray();
+        for (int i = 0; i < 10000; i++) {
+            big.add("item" + i);
+        }
+        JsonArray edited = big.deepCopy();
+        edited.remove(5000);
+        edited.remove(100);
+        edited.add(new JsonPrimitive("tail"));
+        JsonArray moved = new JsonArray();
+        moved.add("head");
+        moved.addAll(edited);
+        JsonArray bigPatch = JsonLib.diff(big, moved);
+        assertEquals(4, bigPatch.size());
+        assertEquals(moved, JsonLib.applyPatch(big, bigPatch));
+
+        JsonElement applied = JsonLib.applyPatch(source, JsonLib.strictParse(
+                "[{\"op\":\"test\",\"path\":\"/name\",\"value\":\"a\"},"
+                        + "{\"op\":\"move\",\"from\":\"/name\",\"path\":\"/list/-\"},"
+                        + "{\"op\":\"copy\",\"from\":\"/list/0\",\"path\":\"/first\"}]").getAsJsonArray());
+        assertEquals("a", applied.getAsJsonObject().getAsJsonArray("list").get(4).getAsString());
+        assertEquals("a", applied.getAsJsonObject().get("first").getAsString());
+        assertFalse(applied.getAsJsonObject().has("name"));
+        assertTrue(source.getAsJsonObject().has("name"));
+
+        assertThrows(JsonException.class, () -> JsonLib.applyPatch(source, JsonLib.strictParse(
+                "[{\"op\":\"test\",\"path\":\"/name\",\"value\":\"z\"}]").getAsJsonArray()));
+        assertThrows(JsonException.class, () -> JsonLib.applyPatch(source, JsonLib.strictParse(
+                "[{\"op\":\"remove\",\"path\":\"/list/9\"}]").getAsJsonArray()));
+        assertThrows(JsonException.class, () -> JsonLib.applyPatch(source, JsonLib.strictParse(
+                "[{\"op\":\"replace\",\"path\":\"/missing\",\"value\":1}]").getAsJsonArray()));
+        assertThrows(JsonException.class, () -> JsonLib.applyPatch(source, JsonLib.strictParse(
+                "[{\"op\":\"remove\",\"path\":\"/list/+1\"}]").getAsJsonArray()));
+        assertThrows(JsonException.class, () -> JsonLib.applyPatch(source, JsonLib.strictParse(
+                "[{\"op\":1,\"path\":[]}]").getAsJsonArray()));
+        assertThrows(JsonException.class, () -> JsonLib.applyPatch(source, JsonLib.strictParse(
+                "[{\"op\":\"copy\",\"from\":null,\"path\":\"/first\"}]").getAsJsonArray()));
+    }
+
+    @Test
+    public void testNormalizeAndMergeReuseUnchangedTrees() {
+        JsonElement defaults = JsonLib.strictParse(
+                "{\"enabled\":false,\"limits\":{\"max\":20,\"min\":1},\"mobs\":[{\"id\":\"\",\"weight\":1}],\"name\":\"x\"}");
+        JsonElement matching = JsonLib.strictParse(
+                "{\"enabled\":true,\"limits\":{\"max\":5,\"min\":2},\"mobs\":[{\"id\":\"zombie\",\"weight\":3}],\"name\":\"y\",\"extra\":[1]}");
+        String layout = matching.toString();
+        assertSame(matching, JsonLib.normalizeShared(matching, defaults));
+        assertSame(matching, JsonLib.normalizeInPlace(matching, defaults));
+        assertSame(matching, JsonLib.mergeShared(matching, defaults));
+        assertEquals(JsonLib.normalize(matching, defaults).toString(), layout);
+
+        // Keys out of the defaults' order are laid out exactly like normalize and merge do
+        JsonElement shuffled = JsonLib.strictParse(
+                "{\"extra\":[1],\"name\":\"y\",\"enabled\":true,\"limits\":{\"min\":2,\"max\":5},\"mobs\":[{\"weight\":3,\"id\":\"zombie\"}]}");
+        String expectedNormalized = JsonLib.normalize(shuffled, defaults).toString();
+        String expectedMerged = JsonLib.merge(shuffled, defaults).toString();
+        assertEquals(expectedNormalized, JsonLib.normalizeShared(shuffled, defaults).toString());
+        assertEquals(expectedMerged, JsonLib.mergeShared(shuffled, defaults).toString());
+        assertEquals(expectedMerged, JsonLib.mergeInPlace(shuffled.deepCopy(), defaults).toString());
+        JsonElement reordered = shuffled.deepCopy();
+        assertSame(reordered, JsonLib.normalizeInPlace(reordered, defaults));
+        assertEquals(expectedNormalized, reordered.toString());
+
+        JsonObject partial = JsonLib.strictParse(
+                "{\"enabled\":\"yes\",\"limits\":{\"max\":5},\"mobs\":[{\"id\":\"a\",\"weight\":1},{\"id\":\"b\",\"weight\":\"2\"}],\"extra\":[1]}")
+                .getAsJsonObject();
+        String before = partial.toString();
+        JsonObject shared = JsonLib.normalizeShared(partial, defaults).getAsJsonObject();
+        assertEquals(before, partial.toString());
+        assertEquals(JsonLib.stringify(JsonLib.normalize(partial, defaults), OutputFormat.COMPACT),
+                JsonLib.stringify(shared, OutputFormat.COMPACT));
+        assertSame(partial.get("extra"), shared.get("extra"));
+        assertSame(partial.getAsJsonArray("mobs").get(0), shared.getAsJsonArray("mobs").get(0));
+        assertNotSame(defaults.getAsJsonObject().get("limits"), shared.get("limits"));
+        shared.getAsJsonObject("limits").addProperty("min", 99);
+        assertEquals(1, defaults.getAsJsonObject().getAsJsonObject("limits").get("min").getAsInt());
+
+        JsonObject merged = JsonLib.mergeShared(partial, defaults).getAsJsonObject();
+        assertEquals(JsonLib.merge(partial, defaults), merged);
+        assertSame(partial.get("mobs"), merged.get("mobs"));
+        assertEquals(before, partial.toString());
+
+        JsonElement owned = partial.deepCopy();
+        assertSame(owned, JsonLib.normalizeInPlace(owned, defaults));
+        // Missing defaults are inserted at their place in the defaults, not appended
+        assertEquals(JsonLib.normalize(partial, defaults).toString(), owned.toString());
+        assertTrue(owned.getAsJsonObject().get("enabled").getAsBoolean());
+        assertEquals(2, owned.getAsJsonObject().getAsJsonArray("mobs").get(1).getAsJsonObject().get("weight").getAsInt());
+
+        JsonElement ownedMerge = partial.deepCopy();
+        assertSame(ownedMerge, JsonLib.mergeInPlace(ownedMerge, defaults));
+        assertEquals(JsonLib.merge(partial, defaults).toString(), ownedMerge.toString());
+
+        JsonElement replaced = JsonLib.normalizeInPlace(new JsonPrimitive(3), defaults);
+        assertEquals(defaults, replaced);
+        assertNotSame(defaults, replaced);
+    }
+
     @Test
     public void testVersionDetection() {
         JsonObject obj = new JsonObject();
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.io.TempDir;
 import tn.naizo.jauml.JaumlConfigLib;
 
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -90,4 +91,25 @@ public class LegacyCompatibilityTest {
         assertTrue(JaumlConfigLib.deleteConfigFile(dir, file));
         assertFalse(JaumlConfigLib.configFileExists(dir, file));
     }
+
+    @Test
+    public void testLegacyWritesCoalescedWithWriteBehind() {
+        String dir = "legacy";
+        String file = "write_behind";
+
+        JaumlConfig.setWriteBehind(Duration.ofMinutes(1));
+        try {
+            for (int i = 0; i < 50; i++) {
+                assertTrue(JaumlConfigLib.setIntValue(dir, file, "key" + i, i));
+            }
+            ConfigFile config = JaumlConfig.open(dir, file);
+            assertEquals(0, config.writeCount());
+
+            JaumlConfig.flushAll();
+            assertEquals(1, config.writeCount());
+            assertTrue(JaumlConfigLib.configFileExists(dir, file));
+        } finally {
+            JaumlConfig.setWriteBehind(Duration.ZERO);
+        }
+    }
 }
@@ -0,0 +1,97 @@
+package tn.naizo.jauml.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentJsonTest {
+
+    @Test
+    public void testGsonRoundTrip() {
+        JsonElement gson = JsonLib.strictParse("{\"z\":1,\"a\":{\"list\":[1,\"two\",null,true,{\"x\":1.5}]},\"m\":null}");
+        PersistentJson persistent = PersistentJson.of(gson);
+        assertEquals(gson, persistent.toJsonElement());
+        assertEquals(JsonLib.stringify(gson, OutputFormat.COMPACT), persistent.toString());
+        assertEquals(PersistentJson.of(JsonLib.strictParse("{\"m\":null,\"a\":{\"list\":[1,\"two\",null,true,{\"x\":1.5}]},\"z\":1}")), persistent);
+        assertEquals(persistent.hashCode(), PersistentJson.of(gson.deepCopy()).hashCode());
+        assertEquals("two", persistent.get(JsonPath.of("a.list[1]")).asPrimitive().getAsString());
+        assertNull(persistent.get(JsonPath.of("a.list[9]")));
+    }
+
+    @Test
+    public void testEditsShareUnchangedStructure() {
+        PersistentObject defaults = PersistentJson.of(JsonLib.strictParse(
+                "{\"spawn\":{\"x\":0,\"y\":64},\"limits\":{\"max\":20},\"tags\":[\"a\",\"b\"]}")).asObject();
+        PersistentObject player = defaults.with(JsonPath.of("spawn.x"), PersistentJson.of(10));
+
+        assertEquals(0, defaults.get(JsonPath.of("spawn.x")).asPrimitive().getAsInt());
+        assertEquals(10, player.get(JsonPath.of("spawn.x")).asPrimitive().getAsInt());
+        assertSame(defaults.get("limits"), player.get("limits"));
+        assertSame(defaults.get("tags"), player.get("tags"));
+        assertSame(defaults.get("spawn").asObject().get("y"), player.get("spawn").asObject().get("y"));
+        assertEquals(Arrays.asList("spawn", "limits", "tags"), player.keys());
+
+        assertSame(player, player.with("limits", player.get("limits")));
+        PersistentObject removed = player.without("limits");
+        assertEquals(Arrays.asList("spawn", "tags"), removed.keys());
+        assertEquals(Arrays.asList("spawn", "tags", "limits"), removed.with("limits", PersistentJson.NULL).keys());
+        assertTrue(player.has("limits"));
+
+        PersistentObject padded = PersistentObject.EMPTY.with(JsonPath.of("grid[1][2]"), PersistentJson.of("x"));
+        JsonObject expected = new JsonObject();
+        JsonLib.setByPath(expected, "grid[1][2]", new com.google.gson.JsonPrimitive("x"));
+        assertEquals(expected, padded.toJsonElement());
+    }
+
+    @Test
+    public void testLargeObjectsAndArrays() {
+        PersistentObject object = PersistentObject.EMPTY;
+        PersistentArray array = PersistentArray.EMPTY;
+        for (int i = 0; i < 5000; i++) {
+            object = object.with("key" + i, PersistentJson.of(i));
+            array = array.append(PersistentJson.of(i));
+        }
+        // "Aa" and "BB" have the same hash code
+        object = object.with("Aa", PersistentJson.of(1)).with("BB", PersistentJson.of(2));
+        assertEquals(5002, object.size());
+        assertEquals(1, object.get("Aa").asPrimitive().getAsInt());
+        assertEquals(2, object.get("BB").asPrimitive().getAsInt());
+        assertEquals(5001, object.without("Aa").size());
+        assertEquals(2, object.without("Aa").get("BB").asPrimitive().getAsInt());
+
+        PersistentArray changed = array.with(1234, PersistentJson.of("changed"));
+        assertEquals(1234, array.get(1234).asPrimitive().getAsInt());
+        assertEquals("changed", changed.get(1234).asPrimitive().getAsString());
+        assertEquals(4999, changed.get(4999).asPrimitive().getAsInt());
+        int expected = 0;
+        for (PersistentJson item : array) {
+            assertEquals(expected++, item.asPrimitive().getAsInt());
+        }
+        assertEquals(5000, expected);
+        assertThrows(IndexOutOfBoundsException.class, () -> PersistentArray.EMPTY.get(0));
+
+        for (int i = 0; i < 4990; i++) {
+            object = object.without("key" + i);
+        }
+        assertEquals(Arrays.asList("key4990", "key4991", "key4992", "key4993", "key4994",
+                "key4995", "key4996", "key4997", "key4998", "key4999", "Aa", "BB"), object.keys());
+    }
+
+    @Test
+    public void testMergeSharesValues() {
+        PersistentJson defaults = PersistentJson.of(JsonLib.strictParse("{\"a\":1,\"nested\":{\"b\":2,\"c\":3}}"));
+        PersistentJson complete = PersistentJson.of(JsonLib.strictParse("{\"nested\":{\"c\":30,\"b\":20},\"a\":10,\"extra\":true}"));
+        assertSame(complete, JsonLib.merge(complete, defaults));
+
+        PersistentJson partial = PersistentJson.of(JsonLib.strictParse("{\"nested\":{\"b\":20},\"extra\":true}"));
+        PersistentJson merged = JsonLib.merge(partial, defaults);
+        assertEquals(JsonLib.merge(partial.toJsonElement(), defaults.toJsonElement()), merged.toJsonElement());
+        assertSame(defaults.asObject().get("a"), merged.asObject().get("a"));
+        assertSame(partial.asObject().get("extra"), merged.asObject().get("extra"));
+        assertSame(defaults, JsonLib.merge(PersistentJson.NULL, defaults));
+    }
+}
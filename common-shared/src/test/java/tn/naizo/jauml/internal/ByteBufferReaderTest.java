@@ -0,0 +1,39 @@
+package tn.naizo.jauml.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteBufferReaderTest {
+
+    @Test
+    public void testSingleCharReadsSplitSurrogatePairs() throws IOException {
+        String text = "\uD83D\uDE00x\u00E9\uD83C\uDF89";
+        ByteBufferReader reader = new ByteBufferReader(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+        char[] buffer = new char[1];
+        StringBuilder decoded = new StringBuilder();
+        int read;
+        while ((read = reader.read(buffer, 0, 1)) != -1) {
+            assertEquals(1, read);
+            decoded.append(buffer[0]);
+        }
+        assertEquals(text, decoded.toString());
+        assertEquals(-1, reader.read(buffer, 0, 1));
+    }
+
+    @Test
+    public void testBulkReadAfterPendingLowSurrogate() throws IOException {
+        String text = "\uD83D\uDE00abc";
+        ByteBufferReader reader = new ByteBufferReader(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+        char[] buffer = new char[8];
+        assertEquals(1, reader.read(buffer, 0, 1));
+        assertEquals('\uD83D', buffer[0]);
+        assertEquals(4, reader.read(buffer, 1, 7));
+        assertEquals(text, new String(buffer, 0, 5));
+        assertEquals(-1, reader.read(buffer, 0, 8));
+    }
+}